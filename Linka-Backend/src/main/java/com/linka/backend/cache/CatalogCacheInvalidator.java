@@ -0,0 +1,67 @@
+package com.linka.backend.cache;
+
+import com.linka.backend.entity.Listing;
+import com.linka.backend.event.CategoryChangedEvent;
+import com.linka.backend.event.ListingChangedEvent;
+import com.linka.backend.util.HttpCaching;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Drops cached catalog lists and finished responses after the write that changed them has
+ * committed. Response cache keys start with {@link #LISTINGS_PREFIX} or
+ * {@link #CATEGORIES_PREFIX} depending on what they were built from.
+ */
+@Component
+public class CatalogCacheInvalidator {
+
+    public static final String CATEGORIES = "categories";
+    public static final String FEATURED_LISTINGS = "featuredListings";
+    public static final String LISTING_PAGES_VERSION = "listingPagesVersion";
+
+    public static final String ACTIVE_KEY = "active";
+    public static final String FEATURED_KEY = "featured";
+    public static final String CURRENT_KEY = "current";
+
+    public static final String LISTINGS_PREFIX = "listings:";
+    public static final String CATEGORIES_PREFIX = "categories:";
+
+    @Autowired
+    private TwoTierCache twoTierCache;
+
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
+
+    /**
+     * Weak ETag for the listing pages read straight from the listings table. The version is a
+     * random token held in the {@link TwoTierCache}, so every instance answers with the same
+     * one, and a listing write replaces it everywhere through the usual invalidation broadcast.
+     * Writes that bypass the application only show once the shared entry expires.
+     */
+    public String listingPagesETag() {
+        return HttpCaching.weakETag(twoTierCache.getJson(LISTING_PAGES_VERSION, CURRENT_KEY, () -> UUID.randomUUID().toString()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        twoTierCache.invalidate(CATEGORIES, ACTIVE_KEY);
+        twoTierCache.invalidate(CATEGORIES, FEATURED_KEY);
+        responseBodyCache.invalidatePrefix(CATEGORIES_PREFIX);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        // Drafts still show on their owner's page, so every write moves the page version
+        twoTierCache.invalidate(LISTING_PAGES_VERSION, CURRENT_KEY);
+        // A new listing that is not yet live cannot be on any cached list
+        if (event.isCreated() && event.getListing().getStatus() != Listing.Status.ACTIVE) {
+            return;
+        }
+        // Cheaper to drop the one short list than to work out whether this listing is on it
+        twoTierCache.invalidate(FEATURED_LISTINGS, ACTIVE_KEY);
+        responseBodyCache.invalidatePrefix(LISTINGS_PREFIX);
+    }
+}
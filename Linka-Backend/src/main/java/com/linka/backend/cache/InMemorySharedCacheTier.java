@@ -0,0 +1,68 @@
+package com.linka.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Process-local stand-in for the shared tier, used by default and in tests so no Redis server
+ * is needed. Invalidation messages are delivered synchronously to this JVM's listeners.
+ * Entries expire after their own TTL, as in Redis, and the total size is capped like a Redis
+ * {@code maxmemory} with eviction.
+ */
+@Component
+@ConditionalOnProperty(name = "linka.cache.shared-tier", havingValue = "memory", matchIfMissing = true)
+public class InMemorySharedCacheTier implements SharedCacheTier {
+
+    // Rough per-entry overhead of the cache node, key and holder
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Cache<String, Entry> entries;
+    private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemorySharedCacheTier(@Value("${linka.cache.shared.max-bytes:67108864}") long maxBytes) {
+        entries = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String id, Entry entry) -> id.length() * 2 + entry.value().length + ENTRY_OVERHEAD_BYTES)
+            .expireAfter(Expiry.writing((String id, Entry entry) -> entry.ttl()))
+            .build();
+    }
+
+    @Override
+    public byte[] get(String cacheName, String key) {
+        Entry entry = entries.getIfPresent(cacheName + ":" + key);
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public void put(String cacheName, String key, byte[] value, Duration ttl) {
+        entries.put(cacheName + ":" + key, new Entry(value, ttl));
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        entries.invalidate(cacheName + ":" + key);
+    }
+
+    @Override
+    public void publishInvalidation(String cacheName, String key) {
+        for (BiConsumer<String, String> listener : listeners) {
+            listener.accept(cacheName, key);
+        }
+    }
+
+    @Override
+    public void onInvalidation(BiConsumer<String, String> listener) {
+        listeners.add(listener);
+    }
+
+    private record Entry(byte[] value, Duration ttl) {}
+}
@@ -0,0 +1,119 @@
+package com.linka.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Redis-backed shared tier. Values are stored as raw bytes under {@code <prefix><cache>:<key>}
+ * and invalidations are broadcast on a pub/sub channel as {@code <cache>:<key>}.
+ *
+ * Redis errors are logged and treated as misses, so an outage degrades to near cache plus
+ * database instead of failing requests.
+ */
+@Component
+@ConditionalOnProperty(name = "linka.cache.shared-tier", havingValue = "redis")
+public class RedisSharedCacheTier implements SharedCacheTier {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisSharedCacheTier.class);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String keyPrefix;
+    private final String channel;
+    private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisSharedCacheTier(RedisConnectionFactory connectionFactory,
+                                @Value("${linka.cache.redis.key-prefix:linka:}") String keyPrefix,
+                                @Value("${linka.cache.redis.invalidation-channel:linka:cache-invalidation}") String channel) {
+        this.keyPrefix = keyPrefix;
+        this.channel = channel;
+
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        redisTemplate.afterPropertiesSet();
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.indexOf(':');
+            if (separator > 0) {
+                String cacheName = body.substring(0, separator);
+                String key = body.substring(separator + 1);
+                for (BiConsumer<String, String> listener : listeners) {
+                    listener.accept(cacheName, key);
+                }
+            }
+        }, new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Override
+    public byte[] get(String cacheName, String key) {
+        try {
+            return redisTemplate.opsForValue().get(keyPrefix + cacheName + ":" + key);
+        } catch (Exception e) {
+            logger.warn("Shared cache read failed for {}:{}: {}", cacheName, key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String cacheName, String key, byte[] value, Duration ttl) {
+        try {
+            redisTemplate.opsForValue().set(keyPrefix + cacheName + ":" + key, value, ttl);
+        } catch (Exception e) {
+            logger.warn("Shared cache write failed for {}:{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        try {
+            redisTemplate.delete(keyPrefix + cacheName + ":" + key);
+        } catch (Exception e) {
+            logger.warn("Shared cache evict failed for {}:{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void publishInvalidation(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, (cacheName + ":" + key).getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            logger.warn("Cache invalidation broadcast failed for {}:{}: {}", cacheName, key, e.getMessage());
+            // Other instances catch up when their near copies expire; drop ours now
+            for (BiConsumer<String, String> listener : listeners) {
+                listener.accept(cacheName, key);
+            }
+        }
+    }
+
+    @Override
+    public void onInvalidation(BiConsumer<String, String> listener) {
+        listeners.add(listener);
+    }
+}
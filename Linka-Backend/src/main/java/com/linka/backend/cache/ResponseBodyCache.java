@@ -0,0 +1,172 @@
+package com.linka.backend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linka.backend.util.HttpCaching;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.ServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finished response bodies for the public list endpoints: the UTF-8 JSON, a gzip variant
+ * compressed once at the highest level, and an ETag, keyed by endpoint and parameters. A hit
+ * writes the stored bytes straight out with no query, no Jackson and no per-request gzip.
+ *
+ * Entries live for a few seconds, and are dropped early when a listing or category changes,
+ * so rankings driven by engagement are at most one TTL behind.
+ */
+@Component
+public class ResponseBodyCache {
+
+    public static final String CACHE_NAME = "responseBody";
+
+    // Below this the gzip header and framing cost more than they save
+    private static final int MIN_GZIP_BYTES = 1024;
+    // Rough per-entry overhead of the cache node, key and holder
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${linka.cache.response.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${linka.cache.response.ttl-seconds:10}")
+    private long ttlSeconds;
+
+    private Cache<String, CachedBody> cache;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedBody body) -> key.length() * 2 + body.weight() + ENTRY_OVERHEAD_BYTES)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Returns the cached body, serializing the loader's value inside a read-only transaction on a miss. */
+    public CachedBody get(String key, Supplier<?> loader) {
+        return cache.get(key, k -> new CachedBody(readOnlyTransaction.execute(status -> serialize(loader.get()))));
+    }
+
+    /** Returns the cached body for JSON that is already serialized, e.g. by {@link TwoTierCache}. */
+    public CachedBody getJson(String key, Supplier<byte[]> jsonLoader) {
+        return cache.get(key, k -> new CachedBody(jsonLoader.get()));
+    }
+
+    /** Drops every entry whose key starts with the prefix. */
+    public void invalidatePrefix(String prefix) {
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Answers 304 when the client's ETag matches, else the gzip variant when the client accepts
+     * it. Cache-Control and Surrogate-Key are set only when given, for endpoints whose filter
+     * does not set them already.
+     */
+    public ResponseEntity<byte[]> respond(CachedBody body, WebRequest webRequest, CacheControl cacheControl, String surrogateKey) {
+        if (webRequest instanceof NativeWebRequest nativeRequest) {
+            ServletRequest request = nativeRequest.getNativeRequest(ServletRequest.class);
+            if (request != null) {
+                // Already carries an ETag; buffering it again to hash it would be wasted work
+                ShallowEtagHeaderFilter.disableContentCaching(request);
+            }
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(body.eTag);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        if (surrogateKey != null) {
+            headers.set(HttpCaching.SURROGATE_KEY, surrogateKey);
+        }
+        if (webRequest.checkNotModified(body.eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (body.gzip != null && HttpCaching.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return ResponseEntity.ok().headers(headers).body(body.gzip);
+        }
+        return ResponseEntity.ok().headers(headers).body(body.json);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static final class CachedBody {
+        final byte[] json;
+        // Null when not worth compressing
+        final byte[] gzip;
+        final String eTag;
+
+        CachedBody(byte[] json) {
+            this.json = json;
+            byte[] compressed = json.length >= MIN_GZIP_BYTES ? gzip(json) : null;
+            this.gzip = compressed != null && compressed.length < json.length ? compressed : null;
+            this.eTag = HttpCaching.weakETag(json);
+        }
+
+        int weight() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
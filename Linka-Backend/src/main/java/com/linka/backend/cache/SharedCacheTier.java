@@ -0,0 +1,23 @@
+package com.linka.backend.cache;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+/**
+ * The cache tier shared by all instances, behind each instance's near cache. Values are
+ * opaque bytes. Implementations must treat an unreachable backend as a miss rather than
+ * failing the request.
+ */
+public interface SharedCacheTier {
+
+    byte[] get(String cacheName, String key);
+
+    void put(String cacheName, String key, byte[] value, Duration ttl);
+
+    void evict(String cacheName, String key);
+
+    /** Tells every instance, including this one, to drop its near copy of the key. */
+    void publishInvalidation(String cacheName, String key);
+
+    void onInvalidation(BiConsumer<String, String> listener);
+}
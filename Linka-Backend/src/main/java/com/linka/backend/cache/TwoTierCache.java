@@ -0,0 +1,112 @@
+package com.linka.backend.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON for catalog reads, cached in a small per-instance near cache in front of the
+ * {@link SharedCacheTier}. A near miss asks the shared tier before running the loader, so one
+ * instance's database read serves the whole fleet. Invalidation removes the shared entry and
+ * broadcasts to every instance's near cache; the short near TTL bounds staleness if a
+ * broadcast is lost.
+ */
+@Component
+public class TwoTierCache {
+
+    public static final String NEAR_CACHE_NAME = "catalogNear";
+
+    // Rough per-entry overhead of the cache node, key and holder
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    @Autowired
+    private SharedCacheTier sharedTier;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${linka.cache.near.max-bytes:16777216}")
+    private long nearMaxBytes;
+
+    @Value("${linka.cache.near.ttl-seconds:30}")
+    private long nearTtlSeconds;
+
+    @Value("${linka.cache.shared.ttl-seconds:600}")
+    private long sharedTtlSeconds;
+
+    private Cache<String, byte[]> near;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        near = Caffeine.newBuilder()
+            .maximumWeight(nearMaxBytes)
+            .weigher((String key, byte[] json) -> key.length() * 2 + json.length + ENTRY_OVERHEAD_BYTES)
+            .expireAfterWrite(Duration.ofSeconds(nearTtlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, near, NEAR_CACHE_NAME);
+        sharedTier.onInvalidation((cacheName, key) -> near.invalidate(nearKey(cacheName, key)));
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns the cached JSON for the key, loading and serializing the value inside a read-only
+     * transaction on a miss in both tiers. A null value from the loader is not cached.
+     */
+    public byte[] getJson(String cacheName, String key, Supplier<?> loader) {
+        return near.get(nearKey(cacheName, key), k -> {
+            byte[] shared = sharedTier.get(cacheName, key);
+            if (shared != null) {
+                return shared;
+            }
+            byte[] json = readOnlyTransaction.execute(status -> {
+                Object value = loader.get();
+                return value == null ? null : serialize(value);
+            });
+            if (json != null) {
+                sharedTier.put(cacheName, key, json, Duration.ofSeconds(sharedTtlSeconds));
+            }
+            return json;
+        });
+    }
+
+    public void invalidate(String cacheName, String key) {
+        near.invalidate(nearKey(cacheName, key));
+        sharedTier.evict(cacheName, key);
+        sharedTier.publishInvalidation(cacheName, key);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String nearKey(String cacheName, String key) {
+        return cacheName + ":" + key;
+    }
+}
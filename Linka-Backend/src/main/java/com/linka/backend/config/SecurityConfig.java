@@ -77,7 +77,12 @@ public class SecurityConfig {
                     "/webjars/**",
                     "/api/docs/**"
                 ).permitAll()
-                .requestMatchers(HttpMethod.POST, "/api/listings").hasAnyRole("USER", "SELLER", "ADMIN")
+                // Upload sessions belong to their user, unlike the photos served next to them
+                .requestMatchers("/api/uploads/sessions/**").authenticated()
+                // Listing photos are public and loaded by <img> tags, which cannot send a token
+                .requestMatchers(HttpMethod.GET, "/api/uploads/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/api/uploads/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/listings", "/api/listings/import").hasAnyRole("USER", "SELLER", "ADMIN")
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/seller/**").hasAnyRole("SELLER", "ADMIN")
                 .requestMatchers("/api/user/**").hasAnyRole("USER", "SELLER", "ADMIN")
@@ -105,10 +110,12 @@ public class SecurityConfig {
             "Authorization",
             "X-Request-ID",
             "X-CSRF-Token",
-            "Cache-Control"
+            "Cache-Control",
+            "Upload-Offset",
+            "Upload-Checksum"
         ));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Disposition", "X-CSRF-Token"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Disposition", "X-CSRF-Token", "Upload-Offset"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
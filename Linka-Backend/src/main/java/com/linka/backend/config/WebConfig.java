@@ -1,13 +1,37 @@
 package com.linka.backend.config;
 
+import com.linka.backend.cache.CatalogCacheInvalidator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
 @Configuration
 public class WebConfig {
 
+    // Listing pages whose content comes from the listings table alone
+    private static final Pattern VERSIONED_LISTING_PAGE =
+        Pattern.compile("/api/listings(/(category|user)/\\d+|/price-range|/location|/batch)?");
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
@@ -25,4 +49,90 @@ public class WebConfig {
             }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Conditional GETs for listing pages read straight from the listings table. The validator
+     * is the listing pages version ({@link CatalogCacheInvalidator#listingPagesETag}), checked
+     * before the handler runs, so an unchanged page costs a cache lookup and a 304 with no
+     * query at all. Engagement counts and seller names change without a listing write, so they
+     * can lag on a revalidated page; the detail endpoint serves live counts under its own
+     * validators.
+     */
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> listingPageVersionFilter(CatalogCacheInvalidator catalogCacheInvalidator) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected boolean shouldNotFilter(HttpServletRequest request) {
+                return !"GET".equals(request.getMethod()) || !VERSIONED_LISTING_PAGE.matcher(request.getRequestURI()).matches();
+            }
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                // Pages need a login, so only the client may store them, and it must revalidate
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+                String eTag = catalogCacheInvalidator.listingPagesETag();
+                if (new ServletWebRequest(request, response).checkNotModified(eTag)) {
+                    return;
+                }
+                filterChain.doFilter(request, response);
+            }
+        };
+
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/listings", "/api/listings/*");
+        return registration;
+    }
+
+    /**
+     * Weak ETags hashed from the rendered body for the listing pages built from the in-memory
+     * read models (search, suggestions, facets, nearby), which the page version does not cover.
+     * They save the client the payload, not the server the work. Detail, the versioned pages
+     * and the pages served from the response cache set their own validators.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listingPageEtagFilter() {
+        Pattern detailPath = Pattern.compile("/api/listings/\\d+");
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter() {
+            @Override
+            protected boolean shouldNotFilter(HttpServletRequest request) {
+                String path = request.getRequestURI();
+                return !"GET".equals(request.getMethod()) || detailPath.matcher(path).matches()
+                    || VERSIONED_LISTING_PAGE.matcher(path).matches();
+            }
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+                super.doFilterInternal(request, response, filterChain);
+            }
+        };
+        filter.setWriteWeakETag(true);
+
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/listings", "/api/listings/*");
+        return registration;
+    }
+
+    /**
+     * Stages multipart uploads inside the upload directory rather than Tomcat's work dir, next
+     * to the metadata-free copies {@code ImageUploadService} writes from them; being on the same
+     * filesystem as the blobs, those copies are renamed into place. The directory starts with a
+     * dot, so it is never served.
+     */
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties properties,
+                                                         @Value("${file.upload-dir:uploads/}") String uploadDir) {
+        if (properties.getLocation() == null) {
+            Path incoming = Paths.get(uploadDir, ".incoming").toAbsolutePath();
+            try {
+                Files.createDirectories(incoming);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            properties.setLocation(incoming.toString());
+        }
+        return properties.createMultipartConfig();
+    }
+}
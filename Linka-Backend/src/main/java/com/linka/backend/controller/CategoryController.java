@@ -1,18 +1,29 @@
 package com.linka.backend.controller;
 
+import com.linka.backend.cache.CatalogCacheInvalidator;
+import com.linka.backend.cache.ResponseBodyCache;
+import com.linka.backend.cache.TwoTierCache;
 import com.linka.backend.entity.Category;
 import com.linka.backend.repository.CategoryRepository;
+import com.linka.backend.util.HttpCaching;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -21,31 +32,49 @@ public class CategoryController {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private TwoTierCache twoTierCache;
+
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
+
+    @Value("${linka.http-cache.category-max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    @Value("${linka.http-cache.category-shared-max-age-seconds:3600}")
+    private long sharedMaxAgeSeconds;
+
     @GetMapping
     public ResponseEntity<?> getAllCategories(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
         
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Category> categories;
+            return withCatalogVersion(webRequest, HttpCaching.CATEGORIES_KEY, () -> {
+                Pageable pageable = PageRequest.of(page, size);
+                Page<?> categories;
             
-            if (search != null && !search.trim().isEmpty()) {
-                categories = categoryRepository.searchActiveCategories(search, pageable);
-            } else {
-                categories = categoryRepository.findAll(pageable);
-            }
+                if (fields != null) {
+                    categories = categoryRepository.findFields(fields, search, pageable);
+                } else if (search != null && !search.trim().isEmpty()) {
+                    categories = categoryRepository.searchActiveCategories(search, pageable);
+                } else {
+                    categories = categoryRepository.findAll(pageable);
+                }
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("categories", categories.getContent());
-            response.put("currentPage", categories.getNumber());
-            response.put("totalPages", categories.getTotalPages());
-            response.put("totalElements", categories.getTotalElements());
-            response.put("hasNext", categories.hasNext());
-            response.put("hasPrevious", categories.hasPrevious());
+                Map<String, Object> response = new HashMap<>();
+                response.put("categories", categories.getContent());
+                response.put("currentPage", categories.getNumber());
+                response.put("totalPages", categories.getTotalPages());
+                response.put("totalElements", categories.getTotalElements());
+                response.put("hasNext", categories.hasNext());
+                response.put("hasPrevious", categories.hasPrevious());
             
-            return ResponseEntity.ok(response);
+                return ResponseEntity.ok(response);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -53,10 +82,12 @@ public class CategoryController {
     }
 
     @GetMapping("/active")
-    public ResponseEntity<?> getActiveCategories() {
+    public ResponseEntity<?> getActiveCategories(WebRequest webRequest) {
         try {
-            List<Category> categories = categoryRepository.findByActiveTrueOrderBySortOrderAsc();
-            return ResponseEntity.ok(categories);
+            ResponseBodyCache.CachedBody categories = responseBodyCache.getJson(CatalogCacheInvalidator.CATEGORIES_PREFIX + "active",
+                () -> twoTierCache.getJson(CatalogCacheInvalidator.CATEGORIES, CatalogCacheInvalidator.ACTIVE_KEY,
+                    () -> categoryRepository.findByActiveTrueOrderBySortOrderAsc()));
+            return responseBodyCache.respond(categories, webRequest, cacheControl(), HttpCaching.CATEGORIES_KEY);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -64,10 +95,12 @@ public class CategoryController {
     }
 
     @GetMapping("/featured")
-    public ResponseEntity<?> getFeaturedCategories() {
+    public ResponseEntity<?> getFeaturedCategories(WebRequest webRequest) {
         try {
-            List<Category> categories = categoryRepository.findFeaturedCategories();
-            return ResponseEntity.ok(categories);
+            ResponseBodyCache.CachedBody categories = responseBodyCache.getJson(CatalogCacheInvalidator.CATEGORIES_PREFIX + "featured",
+                () -> twoTierCache.getJson(CatalogCacheInvalidator.CATEGORIES, CatalogCacheInvalidator.FEATURED_KEY,
+                    () -> categoryRepository.findFeaturedCategories()));
+            return responseBodyCache.respond(categories, webRequest, cacheControl(), HttpCaching.CATEGORIES_KEY);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -76,11 +109,14 @@ public class CategoryController {
 
     @GetMapping("/popular")
     public ResponseEntity<?> getPopularCategories(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Category> categories = categoryRepository.findPopularCategories(pageable);
-            return ResponseEntity.ok(categories);
+            return withCatalogVersion(webRequest, HttpCaching.CATEGORIES_KEY, () -> {
+                Pageable pageable = PageRequest.of(0, limit);
+                List<Category> categories = categoryRepository.findPopularCategories(pageable);
+                return ResponseEntity.ok(categories);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -88,10 +124,11 @@ public class CategoryController {
     }
 
     @GetMapping("/parents")
-    public ResponseEntity<?> getParentCategories() {
+    public ResponseEntity<?> getParentCategories(WebRequest webRequest) {
         try {
-            List<Category> categories = categoryRepository.findParentCategories();
-            return ResponseEntity.ok(categories);
+            ResponseBodyCache.CachedBody categories = responseBodyCache.get(CatalogCacheInvalidator.CATEGORIES_PREFIX + "parents",
+                () -> categoryRepository.findParentCategories());
+            return responseBodyCache.respond(categories, webRequest, cacheControl(), HttpCaching.CATEGORIES_KEY);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -99,10 +136,12 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}/subcategories")
-    public ResponseEntity<?> getSubcategories(@PathVariable Long id) {
+    public ResponseEntity<?> getSubcategories(@PathVariable Long id, WebRequest webRequest) {
         try {
-            List<Category> subcategories = categoryRepository.findSubcategories(id);
-            return ResponseEntity.ok(subcategories);
+            return withCatalogVersion(webRequest, HttpCaching.CATEGORIES_KEY + " " + HttpCaching.categoryKey(id), () -> {
+                List<Category> subcategories = categoryRepository.findSubcategories(id);
+                return ResponseEntity.ok(subcategories);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -110,14 +149,16 @@ public class CategoryController {
     }
 
     @GetMapping("/{slug}")
-    public ResponseEntity<?> getCategoryBySlug(@PathVariable String slug) {
+    public ResponseEntity<?> getCategoryBySlug(@PathVariable String slug, WebRequest webRequest) {
         try {
-            Optional<Category> category = categoryRepository.findBySlug(slug);
-            if (category.isPresent()) {
-                return ResponseEntity.ok(category.get());
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            return withCatalogVersion(webRequest, HttpCaching.CATEGORIES_KEY, () -> {
+                Optional<Category> category = categoryRepository.findBySlug(slug);
+                if (category.isPresent()) {
+                    return ResponseEntity.ok(category.get());
+                } else {
+                    return ResponseEntity.notFound().build();
+                }
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -125,14 +166,16 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<?> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
         try {
-            Optional<Category> category = categoryRepository.findById(id);
-            if (category.isPresent()) {
-                return ResponseEntity.ok(category.get());
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            return withCatalogVersion(webRequest, HttpCaching.CATEGORIES_KEY + " " + HttpCaching.categoryKey(id), () -> {
+                Optional<Category> category = categoryRepository.findById(id);
+                if (category.isPresent()) {
+                    return ResponseEntity.ok(category.get());
+                } else {
+                    return ResponseEntity.notFound().build();
+                }
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -141,11 +184,14 @@ public class CategoryController {
 
     @GetMapping("/with-items")
     public ResponseEntity<?> getCategoriesWithItems(
-            @RequestParam(defaultValue = "20") int limit) {
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest webRequest) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Category> categories = categoryRepository.findCategoriesWithItems(pageable);
-            return ResponseEntity.ok(categories);
+            return withCatalogVersion(webRequest, HttpCaching.CATEGORIES_KEY, () -> {
+                Pageable pageable = PageRequest.of(0, limit);
+                List<Category> categories = categoryRepository.findCategoriesWithItems(pageable);
+                return ResponseEntity.ok(categories);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -156,21 +202,66 @@ public class CategoryController {
     public ResponseEntity<?> searchCategories(
             @RequestParam String search,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Category> categories = categoryRepository.searchActiveCategories(search, pageable);
+            return withCatalogVersion(webRequest, HttpCaching.CATEGORIES_KEY, () -> {
+                Pageable pageable = PageRequest.of(page, size);
+                Page<?> categories = fields != null
+                    ? categoryRepository.findFields(fields, search, pageable)
+                    : categoryRepository.searchActiveCategories(search, pageable);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("categories", categories.getContent());
-            response.put("currentPage", categories.getNumber());
-            response.put("totalPages", categories.getTotalPages());
-            response.put("totalElements", categories.getTotalElements());
+                Map<String, Object> response = new HashMap<>();
+                response.put("categories", categories.getContent());
+                response.put("currentPage", categories.getNumber());
+                response.put("totalPages", categories.getTotalPages());
+                response.put("totalElements", categories.getTotalElements());
             
-            return ResponseEntity.ok(response);
+                return ResponseEntity.ok(response);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
         }
     }
+
+    private CacheControl cacheControl() {
+        // Browsers keep categories briefly; a CDN keeps them longer and is purged by surrogate key
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+            .sMaxAge(Duration.ofSeconds(sharedMaxAgeSeconds))
+            .cachePublic();
+    }
+
+    /**
+     * Validates against the catalog version (latest {@code updatedAt} and row count of the
+     * small categories table) before the handler loads anything, answering 304 when the
+     * client's copy is current.
+     */
+    private ResponseEntity<?> withCatalogVersion(WebRequest webRequest, String surrogateKey, Supplier<ResponseEntity<?>> handler) {
+        Object[] version = categoryRepository.findCatalogVersion().get(0);
+        long lastModified = HttpCaching.toEpochMillis((LocalDateTime) version[0]);
+        String eTag = HttpCaching.weakETag(lastModified + "-" + version[1]);
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return notModified(surrogateKey);
+        }
+        ResponseEntity<?> response = handler.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .eTag(eTag)
+            .lastModified(lastModified)
+            .cacheControl(cacheControl())
+            .header(HttpCaching.SURROGATE_KEY, surrogateKey)
+            .body(response.getBody());
+    }
+
+    private ResponseEntity<?> notModified(String surrogateKey) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .cacheControl(cacheControl())
+            .header(HttpCaching.SURROGATE_KEY, surrogateKey)
+            .build();
+    }
 }
\ No newline at end of file
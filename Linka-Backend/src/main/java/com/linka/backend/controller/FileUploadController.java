@@ -1,20 +1,20 @@
 package com.linka.backend.controller;
 
+import com.linka.backend.service.ImageUploadService;
+import com.linka.backend.util.FileResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+/**
+ * Serves uploaded images. Responses support conditional and range requests, and UUID- and
+ * hash-named files are cacheable for a year; see {@link FileResponses}.
+ */
 @RestController
 @RequestMapping("/api/uploads")
 public class FileUploadController {
@@ -23,71 +23,55 @@ public class FileUploadController {
     private String uploadDir;
 
     @GetMapping("/listings/{listingId}/{filename:.+}")
-    public ResponseEntity<Resource> serveListingImage(
+    public void serveListingImage(
             @PathVariable String listingId,
-            @PathVariable String filename) {
-        
-        try {
-            Path filePath = Paths.get(uploadDir, "listings", listingId).resolve(filename);
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (!resource.exists() || !resource.isReadable()) {
-                return ResponseEntity.notFound().build();
-            }
+            @PathVariable String filename,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
-            // Determine content type
-            String contentType = null;
-            try {
-                contentType = Files.probeContentType(filePath);
-            } catch (IOException e) {
-                contentType = "application/octet-stream";
-            }
+        send(request, response, "listings", listingId, filename);
+    }
 
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
+    /** Content-addressed listing images, see {@link ImageUploadService}. */
+    @GetMapping("/blobs/{prefix}/{filename:.+}")
+    public void serveBlob(
+            @PathVariable String prefix,
+            @PathVariable String filename,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .body(resource);
-                    
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
+        String hash = ImageUploadService.blobHash(ImageUploadService.BLOB_URL_PREFIX + prefix + "/" + filename);
+        if (hash == null || !hash.startsWith(prefix)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        send(request, response, "blobs", prefix, filename);
     }
 
     @GetMapping("/{subDirectory}/{filename:.+}")
-    public ResponseEntity<Resource> serveGenericImage(
+    public void serveGenericImage(
             @PathVariable String subDirectory,
-            @PathVariable String filename) {
-        
-        try {
-            Path filePath = Paths.get(uploadDir, subDirectory).resolve(filename);
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (!resource.exists() || !resource.isReadable()) {
-                return ResponseEntity.notFound().build();
-            }
+            @PathVariable String filename,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
-            String contentType = null;
-            try {
-                contentType = Files.probeContentType(filePath);
-            } catch (IOException e) {
-                contentType = "application/octet-stream";
-            }
+        send(request, response, subDirectory, filename);
+    }
 
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+    private void send(HttpServletRequest request, HttpServletResponse response, String... segments) throws IOException {
+        // Dot directories hold uploads still in flight (see WebConfig)
+        for (String segment : segments) {
+            if (segment.startsWith(".")) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .body(resource);
-                    
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
         }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = root.resolve(Paths.get("", segments)).normalize();
+        if (!file.startsWith(root)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        FileResponses.send(file, request, response);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,11 @@
 package com.linka.backend.controller;
 
+import com.linka.backend.cache.CatalogCacheInvalidator;
+import com.linka.backend.cache.ResponseBodyCache;
+import com.linka.backend.cache.TwoTierCache;
+import com.linka.backend.dto.ListingCard;
+import com.linka.backend.dto.ListingDetail;
+import com.linka.backend.dto.NearbyListingCard;
 import com.linka.backend.entity.Category;
 import com.linka.backend.entity.Listing;
 import com.linka.backend.entity.User;
@@ -7,30 +13,55 @@ import com.linka.backend.repository.CategoryRepository;
 import com.linka.backend.repository.ListingRepository;
 import com.linka.backend.repository.UserRepository;
 import com.linka.backend.service.AuthService;
+import com.linka.backend.service.ImageProcessingService;
+import com.linka.backend.service.ListingCounterService;
+import com.linka.backend.service.ListingDetailCache;
+import com.linka.backend.service.ListingFacetService;
+import com.linka.backend.service.ListingGeoService;
+import com.linka.backend.service.ListingImportService;
+import com.linka.backend.service.ListingPopularService;
+import com.linka.backend.service.ListingSearchService;
+import com.linka.backend.service.ListingSuggestService;
+import com.linka.backend.service.ListingTrendingService;
+import com.linka.backend.util.ListingCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.Authentication;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/listings")
 public class ListingController {
 
+    private static final int MAX_BATCH_IDS = 50;
+    // Each distinct limit is its own cache entry, so keep the set small
+    private static final int MAX_LATEST_LIMIT = 50;
+
     @Autowired
     private ListingRepository listingRepository;
 
@@ -46,19 +77,69 @@ public class ListingController {
     @Autowired
     private com.linka.backend.service.ImageUploadService imageUploadService;
 
+    @Autowired
+    private ListingCounterService listingCounterService;
+
+    @Autowired
+    private ListingDetailCache listingDetailCache;
+
+    @Autowired
+    private ListingSearchService listingSearchService;
+
+    @Autowired
+    private ListingSuggestService listingSuggestService;
+
+    @Autowired
+    private ListingFacetService listingFacetService;
+
+    @Autowired
+    private ListingGeoService listingGeoService;
+
+    @Autowired
+    private ListingTrendingService listingTrendingService;
+
+    @Autowired
+    private ListingPopularService listingPopularService;
+
+    @Autowired
+    private TwoTierCache twoTierCache;
+
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
+
+    @Autowired
+    private ListingImportService listingImportService;
+
+    @Autowired
+    private ImageProcessingService imageProcessingService;
+
     @GetMapping
     public ResponseEntity<?> getAllListings(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String fields) {
         
         try {
+            checkPageSize(size);
+            if (after != null && fields != null) {
+                return ResponseEntity.ok(keysetPage(after, size, new HashMap<>(), (createdAt, id, pageable) ->
+                    listingRepository.findActiveFieldsAfter(fields, null, createdAt, id, pageable), ListingController::rowCursor));
+            }
+            if (after != null) {
+                return ResponseEntity.ok(keysetPage(after, size, new HashMap<>(), (createdAt, id, pageable) ->
+                    listingRepository.findByStatusAfter(Listing.Status.ACTIVE, createdAt, id, pageable)));
+            }
+            
             Sort sort = sortDir.equals("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
             
-            Page<Listing> listings = listingRepository.findByStatusOrderByCreatedAt(Listing.Status.ACTIVE, pageable);
+            Page<?> listings = fields != null
+                ? listingRepository.findActiveFields(fields, null, pageable)
+                : listingRepository.findByStatusOrderByCreatedAt(Listing.Status.ACTIVE, pageable);
             
             Map<String, Object> response = new HashMap<>();
             response.put("listings", listings.getContent());
@@ -76,10 +157,12 @@ public class ListingController {
     }
 
     @GetMapping("/featured")
-    public ResponseEntity<?> getFeaturedListings() {
+    public ResponseEntity<?> getFeaturedListings(WebRequest webRequest) {
         try {
-            List<Listing> listings = listingRepository.findFeaturedListings(Listing.Status.ACTIVE);
-            return ResponseEntity.ok(listings);
+            ResponseBodyCache.CachedBody listings = responseBodyCache.getJson(CatalogCacheInvalidator.LISTINGS_PREFIX + "featured",
+                () -> twoTierCache.getJson(CatalogCacheInvalidator.FEATURED_LISTINGS, CatalogCacheInvalidator.ACTIVE_KEY,
+                    () -> listingRepository.findFeaturedListings(Listing.Status.ACTIVE)));
+            return responseBodyCache.respond(listings, webRequest, null, null);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -88,11 +171,16 @@ public class ListingController {
 
     @GetMapping("/popular")
     public ResponseEntity<?> getPopularListings(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest) {
         try {
-            Pageable pageable = PageRequest.of(0, limit);
-            List<Listing> listings = listingRepository.findPopularListings(Listing.Status.ACTIVE, pageable);
-            return ResponseEntity.ok(listings);
+            if (limit < 1 || limit > ListingPopularService.K) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + ListingPopularService.K);
+            }
+            ResponseBodyCache.CachedBody listings = responseBodyCache.get(CatalogCacheInvalidator.LISTINGS_PREFIX + "popular:" + categoryId + ":" + limit,
+                () -> loadCardsInOrder(listingPopularService.top(categoryId, limit)));
+            return responseBodyCache.respond(listings, webRequest, null, null);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -101,11 +189,16 @@ public class ListingController {
 
     @GetMapping("/latest")
     public ResponseEntity<?> getLatestListings(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest) {
         try {
+            if (limit < 1 || limit > MAX_LATEST_LIMIT) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LATEST_LIMIT);
+            }
             Pageable pageable = PageRequest.of(0, limit);
-            List<Listing> listings = listingRepository.findLatestListings(Listing.Status.ACTIVE, pageable);
-            return ResponseEntity.ok(listings);
+            ResponseBodyCache.CachedBody listings = responseBodyCache.get(CatalogCacheInvalidator.LISTINGS_PREFIX + "latest:" + limit,
+                () -> listingRepository.findLatestListings(Listing.Status.ACTIVE, pageable));
+            return responseBodyCache.respond(listings, webRequest, null, null);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -113,11 +206,56 @@ public class ListingController {
     }
 
     @GetMapping("/trending")
-    public ResponseEntity<?> getTrendingListings() {
+    public ResponseEntity<?> getTrendingListings(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest webRequest) {
         try {
-            LocalDateTime since = LocalDateTime.now().minusDays(7);
-            List<Listing> listings = listingRepository.findTrendingListings(since, Listing.Status.ACTIVE);
-            return ResponseEntity.ok(listings);
+            if (limit < 1 || limit > ListingTrendingService.K) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + ListingTrendingService.K);
+            }
+            ResponseBodyCache.CachedBody listings = responseBodyCache.get(CatalogCacheInvalidator.LISTINGS_PREFIX + "trending:" + categoryId + ":" + limit,
+                () -> loadCardsInOrder(listingTrendingService.top(categoryId, limit)));
+            return responseBodyCache.respond(listings, webRequest, null, null);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Several listings in one round trip, in request order, for favorites, recently viewed and
+     * the cart. Listings, their category, seller and images come from a single IN query; ids
+     * that do not exist are reported under {@code missing}. Views are not counted.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<?> getListingsBatch(@RequestParam List<Long> ids) {
+        try {
+            Set<Long> requested = new LinkedHashSet<>(ids);
+            requested.remove(null);
+            if (requested.isEmpty() || requested.size() > MAX_BATCH_IDS) {
+                throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_IDS + " ids are required");
+            }
+            Map<Long, Listing> byId = new HashMap<>();
+            for (Listing listing : listingRepository.findWithImagesByIdIn(requested)) {
+                byId.put(listing.getId(), listing);
+            }
+            
+            List<ListingDetail> listings = new ArrayList<>(byId.size());
+            List<Long> missing = new ArrayList<>();
+            for (Long id : requested) {
+                Listing listing = byId.get(id);
+                if (listing != null) {
+                    listings.add(new ListingDetail(listing));
+                } else {
+                    missing.add(id);
+                }
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("listings", listings);
+            response.put("missing", missing);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -125,18 +263,41 @@ public class ListingController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getListingById(@PathVariable Long id) {
+    public ResponseEntity<?> getListingById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
         try {
-            Optional<Listing> listing = listingRepository.findById(id);
-            if (listing.isPresent()) {
-                // Increment view count
-                listing.get().incrementViewCount();
-                listingRepository.save(listing.get());
-                
-                return ResponseEntity.ok(listing.get());
-            } else {
+            if (fields != null) {
+                // Straight from the selected columns; counts are as last flushed
+                Optional<Map<String, Object>> listing = listingRepository.findFieldsById(fields, id);
+                if (listing.isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
+                listingCounterService.recordView(id);
+                return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(listing.get());
+            }
+            // Served from the detail cache; the view is counted there and flushed with the counters
+            Optional<ListingDetailCache.CachedDetail> detail = listingDetailCache.view(id);
+            if (detail.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
+            ListingDetailCache.CachedDetail cached = detail.get();
+            // Counts change on every view, so clients revalidate each time and mostly get a 304
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            if (webRequest.checkNotModified(cached.getETag(), cached.getLastModified())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .build();
+            }
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(cached.getETag())
+                .lastModified(cached.getLastModified())
+                .cacheControl(cacheControl)
+                .body(listingDetailCache.render(id, cached));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
@@ -147,11 +308,24 @@ public class ListingController {
     public ResponseEntity<?> getListingsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String fields) {
         try {
+            checkPageSize(size);
+            if (after != null && fields != null) {
+                return ResponseEntity.ok(keysetPage(after, size, new HashMap<>(), (createdAt, id, pageable) ->
+                    listingRepository.findActiveFieldsAfter(fields, categoryId, createdAt, id, pageable), ListingController::rowCursor));
+            }
+            if (after != null) {
+                return ResponseEntity.ok(keysetPage(after, size, new HashMap<>(), (createdAt, id, pageable) ->
+                    listingRepository.findByCategoryAndStatusAfter(categoryId, Listing.Status.ACTIVE, createdAt, id, pageable)));
+            }
+            
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = listingRepository.findByCategoryAndStatus(
-                categoryId, Listing.Status.ACTIVE, pageable);
+            Page<?> listings = fields != null
+                ? listingRepository.findActiveFields(fields, categoryId, PageRequest.of(page, size, Sort.by("createdAt").descending()))
+                : listingRepository.findByCategoryAndStatus(categoryId, Listing.Status.ACTIVE, pageable);
             
             Map<String, Object> response = new HashMap<>();
             response.put("listings", listings.getContent());
@@ -170,16 +344,33 @@ public class ListingController {
     public ResponseEntity<?> searchListings(
             @RequestParam String search,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = listingRepository.searchListings(search, Listing.Status.ACTIVE, pageable);
-            
             Map<String, Object> response = new HashMap<>();
-            response.put("listings", listings.getContent());
-            response.put("currentPage", listings.getNumber());
-            response.put("totalPages", listings.getTotalPages());
-            response.put("totalElements", listings.getTotalElements());
+            checkPageSize(size);
+            if (after != null) {
+                ListingSearchService.SearchResult result = listingSearchService.searchAfter(search, after, size);
+                List<ListingCard> listings = loadCardsInOrder(result.getIds());
+                response.put("listings", listings);
+                response.put("nextCursor", result.getNextCursor());
+                response.put("hasNext", result.getNextCursor() != null);
+                response.put("size", listings.size());
+                response.put("search", search);
+                return ResponseEntity.ok(response);
+            }
+            
+            if (page < 0 || (long) (page + 1) * size > ListingSearchService.MAX_OFFSET_HITS) {
+                throw new IllegalArgumentException("Page and size may reach at most the first "
+                    + ListingSearchService.MAX_OFFSET_HITS + " hits; use the 'after' cursor to go deeper");
+            }
+            ListingSearchService.SearchResult result = listingSearchService.search(search, page, size);
+            long totalElements = result.getTotalHits();
+            
+            response.put("listings", loadCardsInOrder(result.getIds()));
+            response.put("currentPage", page);
+            response.put("totalPages", (int) ((totalElements + size - 1) / size));
+            response.put("totalElements", totalElements);
             response.put("search", search);
             
             return ResponseEntity.ok(response);
@@ -189,6 +380,59 @@ public class ListingController {
         }
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        try {
+            if (limit < 1 || limit > ListingSuggestService.MAX_SUGGESTIONS) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + ListingSuggestService.MAX_SUGGESTIONS);
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("suggestions", listingSuggestService.suggest(q, limit));
+            response.put("query", q);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam MultiValueMap<String, String> params) {
+        try {
+            Map<String, List<String>> selected = new HashMap<>();
+            for (String facet : ListingFacetService.FACETS) {
+                List<String> values = params.get(facet);
+                if (values != null) {
+                    List<String> split = new ArrayList<>();
+                    for (String value : values) {
+                        for (String part : value.split(",")) {
+                            if (!part.isBlank()) {
+                                split.add(part.trim());
+                            }
+                        }
+                    }
+                    selected.put(facet, split);
+                }
+            }
+
+            RoaringBitmap candidates = search != null && !search.isBlank() ? listingSearchService.matchingIds(search) : null;
+            ListingFacetService.FacetResult result = listingFacetService.count(candidates, selected);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("facets", result.getFacets());
+            response.put("totalElements", result.getTotal());
+            response.put("search", search);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/price-range")
     public ResponseEntity<?> getListingsByPriceRange(
             @RequestParam BigDecimal minPrice,
@@ -196,8 +440,9 @@ public class ListingController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         try {
+            checkPageSize(size);
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = listingRepository.findByPriceRange(
+            Page<ListingCard> listings = listingRepository.findByPriceRange(
                 minPrice, maxPrice, Listing.Status.ACTIVE, pageable);
             
             Map<String, Object> response = new HashMap<>();
@@ -219,10 +464,19 @@ public class ListingController {
     public ResponseEntity<?> getListingsByLocation(
             @RequestParam String location,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after) {
         try {
+            checkPageSize(size);
+            if (after != null) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("location", location);
+                return ResponseEntity.ok(keysetPage(after, size, response, (createdAt, id, pageable) ->
+                    listingRepository.findByLocationAfter(location, Listing.Status.ACTIVE, createdAt, id, pageable)));
+            }
+            
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = listingRepository.findByLocation(location, Listing.Status.ACTIVE, pageable);
+            Page<ListingCard> listings = listingRepository.findByLocation(location, Listing.Status.ACTIVE, pageable);
             
             Map<String, Object> response = new HashMap<>();
             response.put("listings", listings.getContent());
@@ -238,14 +492,69 @@ public class ListingController {
         }
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyListings(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            checkPageSize(size);
+            if (page < 0) {
+                throw new IllegalArgumentException("Invalid page");
+            }
+            List<ListingGeoService.Hit> hits = listingGeoService.nearby(lat, lng, radiusKm, categoryId, minPrice, maxPrice);
+            int from = (int) Math.min((long) page * size, hits.size());
+            List<ListingGeoService.Hit> pageHits = hits.subList(from, Math.min(from + size, hits.size()));
+
+            List<Long> ids = new ArrayList<>();
+            for (ListingGeoService.Hit hit : pageHits) {
+                ids.add(hit.listingId());
+            }
+            Map<Long, ListingCard> cards = new HashMap<>();
+            for (ListingCard card : loadCardsInOrder(ids)) {
+                cards.put(card.getId(), card);
+            }
+            List<NearbyListingCard> listings = new ArrayList<>();
+            for (ListingGeoService.Hit hit : pageHits) {
+                ListingCard card = cards.get(hit.listingId());
+                if (card != null) {
+                    listings.add(new NearbyListingCard(card, hit.distanceKm()));
+                }
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("listings", listings);
+            response.put("currentPage", page);
+            response.put("totalPages", (hits.size() + size - 1) / size);
+            response.put("totalElements", hits.size());
+            response.put("radiusKm", radiusKm);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getListingsByUser(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after) {
         try {
+            checkPageSize(size);
+            if (after != null) {
+                return ResponseEntity.ok(keysetPage(after, size, new HashMap<>(), (createdAt, id, pageable) ->
+                    listingRepository.findBySellerAndStatusAfter(userId, Listing.Status.ACTIVE, createdAt, id, pageable)));
+            }
+            
             Pageable pageable = PageRequest.of(page, size);
-            Page<Listing> listings = listingRepository.findBySellerAndStatus(
+            Page<ListingCard> listings = listingRepository.findBySellerAndStatus(
                 userId, Listing.Status.ACTIVE, pageable);
             
             Map<String, Object> response = new HashMap<>();
@@ -264,15 +573,13 @@ public class ListingController {
     @PostMapping("/{id}/favorite")
     public ResponseEntity<?> toggleFavorite(@PathVariable Long id) {
         try {
-            Optional<Listing> listingOpt = listingRepository.findById(id);
-            if (listingOpt.isPresent()) {
-                Listing listing = listingOpt.get();
-                listing.incrementFavoriteCount();
-                listingRepository.save(listing);
+            Optional<Integer> persistedCount = listingRepository.findFavoriteCountById(id);
+            if (persistedCount.isPresent()) {
+                listingCounterService.recordFavorite(id);
                 
                 return ResponseEntity.ok(Map.of(
                     "message", "Added to favorites",
-                    "favoriteCount", listing.getFavoriteCount()
+                    "favoriteCount", persistedCount.get() + listingCounterService.pendingFavorites(id)
                 ));
             } else {
                 return ResponseEntity.notFound().build();
@@ -286,15 +593,13 @@ public class ListingController {
     @PostMapping("/{id}/contact")
     public ResponseEntity<?> incrementContactCount(@PathVariable Long id) {
         try {
-            Optional<Listing> listingOpt = listingRepository.findById(id);
-            if (listingOpt.isPresent()) {
-                Listing listing = listingOpt.get();
-                listing.incrementContactCount();
-                listingRepository.save(listing);
+            Optional<Integer> persistedCount = listingRepository.findContactCountById(id);
+            if (persistedCount.isPresent()) {
+                listingCounterService.recordContact(id);
                 
                 return ResponseEntity.ok(Map.of(
                     "message", "Contact recorded",
-                    "contactCount", listing.getContactCount()
+                    "contactCount", persistedCount.get() + listingCounterService.pendingContacts(id)
                 ));
             } else {
                 return ResponseEntity.notFound().build();
@@ -305,6 +610,71 @@ public class ListingController {
         }
     }
 
+    /** One bound for every paged endpoint, whether paged by offset, cursor or search. */
+    private static void checkPageSize(int size) {
+        if (size < 1 || size > ListingSearchService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + ListingSearchService.MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Cursor mode for the browse endpoints: fetches one row more than requested to find out
+     * whether there is a next page, so no COUNT query is needed.
+     */
+    private Map<String, Object> keysetPage(String after, int size, Map<String, Object> response, KeysetQuery<ListingCard> query) {
+        return keysetPage(after, size, response, query, card -> new ListingCursor(card.getCreatedAt(), card.getId()));
+    }
+
+    private <T> Map<String, Object> keysetPage(String after, int size, Map<String, Object> response, KeysetQuery<T> query, Function<T, ListingCursor> cursorOf) {
+        checkPageSize(size);
+        ListingCursor cursor = ListingCursor.decode(after);
+        List<T> rows = query.fetch(cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, size + 1));
+        
+        boolean hasNext = rows.size() > size;
+        List<T> listings = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            nextCursor = cursorOf.apply(listings.get(listings.size() - 1)).encode();
+        }
+        
+        response.put("listings", listings);
+        response.put("nextCursor", nextCursor);
+        response.put("hasNext", hasNext);
+        response.put("size", listings.size());
+        return response;
+    }
+
+    /**
+     * Loads cards for ranked ids with a single IN query and restores the ranking order. Only
+     * ACTIVE listings are returned, since an in-memory ranking can lag a status change.
+     */
+    private List<ListingCard> loadCardsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ListingCard> byId = new HashMap<>();
+        for (ListingCard card : listingRepository.findCardsByIdInAndStatus(ids, Listing.Status.ACTIVE)) {
+            byId.put(card.getId(), card);
+        }
+        List<ListingCard> cards = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ListingCard card = byId.get(id);
+            if (card != null) {
+                cards.add(card);
+            }
+        }
+        return cards;
+    }
+
+    private static ListingCursor rowCursor(Map<String, Object> row) {
+        return new ListingCursor((LocalDateTime) row.get("createdAt"), (Long) row.get("id"));
+    }
+
+    @FunctionalInterface
+    private interface KeysetQuery<T> {
+        List<T> fetch(LocalDateTime createdAt, Long id, Pageable pageable);
+    }
+
     @PostMapping
     public ResponseEntity<?> createListing(
             @RequestPart("data") String requestJson,
@@ -385,20 +755,35 @@ public class ListingController {
             listing.setCreatedAt(java.time.LocalDateTime.now());
             listing.setUpdatedAt(java.time.LocalDateTime.now());
             
+            boolean hasUploadIds = request.getUploadIds() != null && !request.getUploadIds().isEmpty();
+            if (hasUploadIds) {
+                imageUploadService.checkUploadCount(request.getUploadIds().size());
+            }
+
             // Save listing first to get ID
             Listing savedListing = listingRepository.save(listing);
             
-            // Handle image uploads
-            if (images != null && !images.isEmpty()) {
+            // Handle image uploads: parts of this request, then finished resumable uploads
+            if ((images != null && !images.isEmpty()) || hasUploadIds) {
                 try {
-                    List<String> imageUrls = imageUploadService.uploadImages(images, savedListing.getId().toString());
+                    List<String> imageUrls = new ArrayList<>(imageUploadService.uploadImages(images));
+                    // Until the listing is saved with them, the references taken here are ours to give back
+                    try {
+                        imageUrls.addAll(imageUploadService.claimUploads(request.getUploadIds(), user.getId()));
+                        if (!imageUrls.isEmpty()) {
+                            savedListing.setImageUrls(imageUrls);
+                            savedListing.setFeaturedImageIndex(request.getFeaturedImageIndex());
+                            // Set main image based on featured image index
+                            int featuredIndex = Math.min(request.getFeaturedImageIndex(), imageUrls.size() - 1);
+                            savedListing.setMainImage(imageUrls.get(featuredIndex));
+                            savedListing = listingRepository.save(savedListing);
+                        }
+                    } catch (RuntimeException e) {
+                        imageUploadService.releaseImages(imageUrls);
+                        throw e;
+                    }
                     if (!imageUrls.isEmpty()) {
-                        savedListing.setImageUrls(imageUrls);
-                        savedListing.setFeaturedImageIndex(request.getFeaturedImageIndex());
-                        // Set main image based on featured image index
-                        int featuredIndex = Math.min(request.getFeaturedImageIndex(), imageUrls.size() - 1);
-                        savedListing.setMainImage(imageUrls.get(featuredIndex));
-                        savedListing = listingRepository.save(savedListing);
+                        imageProcessingService.submit(savedListing.getId(), imageUrls);
                     }
                 } catch (Exception e) {
                     return ResponseEntity.badRequest()
@@ -421,4 +806,64 @@ public class ListingController {
                 .body(Map.of("error", "Failed to create listing: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /** Bulk import from a JSON array of rows; see {@link ListingImportService}. */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importListings(@RequestBody List<Map<String, Object>> rows) {
+        try {
+            Optional<User> seller = currentUser();
+            if (seller.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "User not authenticated"));
+            }
+            return ResponseEntity.ok(listingImportService.importRows(rows, seller.get()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Bulk import from a CSV body ({@code Content-Type: text/csv}) with a header row of
+     * {@link com.linka.backend.dto.ListingImportRow} field names, up to
+     * {@code linka.import.max-csv-bytes}.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importListingsCsvBody(InputStream body) {
+        try {
+            Optional<User> seller = currentUser();
+            if (seller.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "User not authenticated"));
+            }
+            List<Map<String, Object>> rows = listingImportService.readCsv(body);
+            return ResponseEntity.ok(listingImportService.importRows(rows, seller.get()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * The same import as a multipart {@code file} part. Parts are held to
+     * {@code spring.servlet.multipart.max-file-size} (5MB, sized for photos); send larger
+     * files as a {@code text/csv} body instead.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importListingsCsv(@RequestPart("file") MultipartFile file) {
+        try {
+            Optional<User> seller = currentUser();
+            if (seller.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "User not authenticated"));
+            }
+            List<Map<String, Object>> rows = listingImportService.readCsv(file.getInputStream());
+            return ResponseEntity.ok(listingImportService.importRows(rows, seller.get()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Optional<User> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Optional.empty();
+        }
+        return userRepository.findByEmail(authentication.getName());
+    }
+}
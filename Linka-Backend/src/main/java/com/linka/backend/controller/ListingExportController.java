@@ -0,0 +1,55 @@
+package com.linka.backend.controller;
+
+import com.linka.backend.entity.Listing;
+import com.linka.backend.service.ListingExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/listings")
+public class ListingExportController {
+
+    @Autowired
+    private ListingExportService listingExportService;
+
+    /**
+     * Streams every matching listing as NDJSON (default) or CSV. {@code status=ALL} drops the
+     * status filter; {@code fields} takes the same names and presets as the list endpoints.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportListings(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "ACTIVE") String status,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(required = false) String updatedSince,
+            @RequestParam(defaultValue = "detail") String fields) {
+        // Everything that can be rejected is checked before the first byte is streamed
+        ListingExportService.Format exportFormat = ListingExportService.Format.valueOf(format.toUpperCase());
+        Listing.Status statusFilter = "ALL".equalsIgnoreCase(status) ? null : Listing.Status.valueOf(status.toUpperCase());
+        LocalDateTime since = updatedSince != null ? LocalDateTime.parse(updatedSince) : null;
+        listingExportService.columns(fields);
+
+        StreamingResponseBody body = out -> listingExportService.write(
+            exportFormat, fields, statusFilter, categoryId, sellerId, since, out);
+        String filename = "listings-" + LocalDate.now() + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, DateTimeParseException.class})
+    public ResponseEntity<?> invalidParameter(RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,139 @@
+package com.linka.backend.controller;
+
+import com.linka.backend.dto.UploadSessionRequest;
+import com.linka.backend.entity.UploadSession;
+import com.linka.backend.entity.User;
+import com.linka.backend.repository.UserRepository;
+import com.linka.backend.service.ImageUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Resumable image uploads for clients on unreliable networks:
+ *
+ * <ol>
+ *   <li>{@code POST /api/uploads/sessions} with the file size (and optional SHA-256) opens one;</li>
+ *   <li>{@code PUT /api/uploads/sessions/{id}} sends the next chunk as the raw body, with its
+ *       starting {@code Upload-Offset} and optionally {@code Upload-Checksum: sha256 <base64>};
+ *       after a failure, {@code GET} (or {@code HEAD}) reports where to resume;</li>
+ *   <li>{@code POST /api/uploads/sessions/{id}/complete} stores the image.</li>
+ * </ol>
+ *
+ * The finished ids then go into {@code uploadIds} when creating the listing. Sessions idle
+ * for {@code linka.images.upload.session-ttl-hours} are discarded.
+ */
+@RestController
+@RequestMapping("/api/uploads/sessions")
+public class UploadSessionController {
+
+    static final String UPLOAD_OFFSET = "Upload-Offset";
+    static final String UPLOAD_CHECKSUM = "Upload-Checksum";
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PostMapping
+    public ResponseEntity<?> createSession(@RequestBody UploadSessionRequest request) {
+        Optional<User> user = currentUser();
+        if (user.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User not authenticated"));
+        }
+        UploadSession session = imageUploadService.createUploadSession(user.get().getId(), request.getSize(), request.getSha256());
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .header(UPLOAD_OFFSET, "0")
+            .body(body(session));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getSession(@PathVariable String id) {
+        UploadSession session = imageUploadService.findUploadSession(id, currentUserId()).orElseThrow();
+        return ResponseEntity.ok()
+            .header(UPLOAD_OFFSET, Long.toString(session.getReceivedBytes()))
+            .body(body(session));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> appendChunk(
+            @PathVariable String id,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            @RequestHeader(value = UPLOAD_CHECKSUM, required = false) String checksum,
+            HttpServletRequest request) throws IOException {
+
+        Long userId = currentUserId();
+        try {
+            long received = imageUploadService.appendChunk(id, userId, offset, request.getInputStream(), checksum);
+            return ResponseEntity.noContent().header(UPLOAD_OFFSET, Long.toString(received)).build();
+        } catch (IllegalStateException e) {
+            // Tell the client where to carry on from
+            ResponseEntity.BodyBuilder conflict = ResponseEntity.status(HttpStatus.CONFLICT);
+            imageUploadService.findUploadSession(id, userId)
+                .ifPresent(session -> conflict.header(UPLOAD_OFFSET, Long.toString(session.getReceivedBytes())));
+            return conflict.body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<?> completeSession(@PathVariable String id) throws IOException {
+        return ResponseEntity.ok(body(imageUploadService.completeUploadSession(id, currentUserId())));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelSession(@PathVariable String id) {
+        return imageUploadService.cancelUploadSession(id, currentUserId())
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<?> notFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Upload session not found"));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<?> conflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, IOException.class})
+    public ResponseEntity<?> invalid(Exception e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private static Map<String, Object> body(UploadSession session) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", session.getId());
+        body.put("size", session.getSizeBytes());
+        body.put("offset", session.getReceivedBytes());
+        body.put("complete", session.isComplete());
+        body.put("imageUrl", session.getImageUrl());
+        body.put("expiresAt", session.getExpiresAt());
+        return body;
+    }
+
+    private Long currentUserId() {
+        // An unknown user owns no sessions, so every lookup comes back empty
+        return currentUser().map(User::getId).orElse(-1L);
+    }
+
+    private Optional<User> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Optional.empty();
+        }
+        return userRepository.findByEmail(authentication.getName());
+    }
+}
@@ -0,0 +1,63 @@
+package com.linka.backend.dto;
+
+import com.linka.backend.entity.Listing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only listing summary used by the list endpoints. It is populated directly by a JPQL
+ * constructor expression, so a page of cards costs a single query and never touches the
+ * lazy associations of {@link Listing}. The image size, colour and BlurHash are null until the
+ * image pipeline has processed the main image.
+ */
+public class ListingCard {
+
+    private final Long id;
+    private final String title;
+    private final BigDecimal price;
+    private final String mainImage;
+    private final String city;
+    private final Listing.ConditionType conditionType;
+    private final String sellerName;
+    private final String categorySlug;
+    private final LocalDateTime createdAt;
+    private final Integer imageWidth;
+    private final Integer imageHeight;
+    private final String imageColor;
+    private final String imageBlurHash;
+
+    public ListingCard(Long id, String title, BigDecimal price, String mainImage, String city,
+                       Listing.ConditionType conditionType, String sellerName, String categorySlug,
+                       LocalDateTime createdAt, Integer imageWidth, Integer imageHeight,
+                       String imageColor, String imageBlurHash) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.mainImage = mainImage;
+        this.city = city;
+        this.conditionType = conditionType;
+        this.sellerName = sellerName;
+        this.categorySlug = categorySlug;
+        this.createdAt = createdAt;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.imageColor = imageColor;
+        this.imageBlurHash = imageBlurHash;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public BigDecimal getPrice() { return price; }
+    public String getMainImage() { return mainImage; }
+    public String getCity() { return city; }
+    public Listing.ConditionType getConditionType() { return conditionType; }
+    public String getSellerName() { return sellerName; }
+    public String getCategorySlug() { return categorySlug; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Integer getImageWidth() { return imageWidth; }
+    public Integer getImageHeight() { return imageHeight; }
+    public String getImageColor() { return imageColor; }
+    public String getImageBlurHash() { return imageBlurHash; }
+}
@@ -4,6 +4,7 @@ import com.linka.backend.entity.Listing;
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public class ListingCreateRequest {
     
@@ -78,6 +79,9 @@ public class ListingCreateRequest {
     // Image handling - images are passed as separate @RequestPart in controller
     private int featuredImageIndex = 0;
     
+    // Finished resumable uploads (see UploadSessionController), placed after any image parts
+    private List<String> uploadIds;
+    
     // Default constructor
     public ListingCreateRequest() {}
     
@@ -186,4 +190,7 @@ public class ListingCreateRequest {
     
     public int getFeaturedImageIndex() { return featuredImageIndex; }
     public void setFeaturedImageIndex(int featuredImageIndex) { this.featuredImageIndex = featuredImageIndex; }
+    
+    public List<String> getUploadIds() { return uploadIds; }
+    public void setUploadIds(List<String> uploadIds) { this.uploadIds = uploadIds; }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.linka.backend.dto;
+
+import com.linka.backend.entity.Category;
+import com.linka.backend.entity.Listing;
+import com.linka.backend.entity.ListingAttribute;
+import com.linka.backend.entity.ListingImage;
+import com.linka.backend.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Public view of a single listing for {@code GET /api/listings/{id}}, flattened from the entity
+ * and its category, seller and attributes so it can be serialized once and cached. Engagement
+ * counters are deliberately not part of it: they change on every hit and are added when the
+ * response is written.
+ */
+public class ListingDetail {
+
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final BigDecimal price;
+    private final BigDecimal originalPrice;
+    private final String discountPercentage;
+    private final Listing.ListingType listingType;
+    private final Listing.ConditionType conditionType;
+    private final Listing.Status status;
+    private final String location;
+    private final String city;
+    private final String district;
+    private final BigDecimal latitude;
+    private final BigDecimal longitude;
+    private final String mainImage;
+    private final List<String> imageUrls;
+    private final List<ListingImage> imageVariants;
+    private final int featuredImageIndex;
+    private final Integer quantityAvailable;
+    private final Integer minOrderQuantity;
+    private final BigDecimal weightKg;
+    private final String dimensions;
+    private final String brand;
+    private final String model;
+    private final String color;
+    private final String size;
+    private final String material;
+    private final String sku;
+    private final String barcode;
+    private final List<String> tags;
+    private final String seoTitle;
+    private final String seoDescription;
+    private final boolean negotiable;
+    private final boolean featured;
+    private final boolean premium;
+    private final boolean allowOffers;
+    private final BigDecimal minimumOffer;
+    private final LocalDateTime expiresAt;
+    private final LocalDateTime publishedAt;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final CategorySummary category;
+    private final SellerSummary seller;
+    private final List<AttributeValue> attributes;
+
+    /** Reads lazy associations, so it must be called inside a transaction. */
+    public ListingDetail(Listing listing) {
+        this.id = listing.getId();
+        this.title = listing.getTitle();
+        this.description = listing.getDescription();
+        this.price = listing.getPrice();
+        this.originalPrice = listing.getOriginalPrice();
+        this.discountPercentage = listing.getDiscountPercentage();
+        this.listingType = listing.getListingType();
+        this.conditionType = listing.getConditionType();
+        this.status = listing.getStatus();
+        this.location = listing.getLocation();
+        this.city = listing.getCity();
+        this.district = listing.getDistrict();
+        this.latitude = listing.getLatitude();
+        this.longitude = listing.getLongitude();
+        this.mainImage = listing.getMainImage();
+        this.imageUrls = new ArrayList<>(listing.getImageUrls());
+        this.imageVariants = new ArrayList<>(listing.getImageVariants());
+        this.featuredImageIndex = listing.getFeaturedImageIndex();
+        this.quantityAvailable = listing.getQuantityAvailable();
+        this.minOrderQuantity = listing.getMinOrderQuantity();
+        this.weightKg = listing.getWeightKg();
+        this.dimensions = listing.getDimensions();
+        this.brand = listing.getBrand();
+        this.model = listing.getModel();
+        this.color = listing.getColor();
+        this.size = listing.getSize();
+        this.material = listing.getMaterial();
+        this.sku = listing.getSku();
+        this.barcode = listing.getBarcode();
+        this.tags = listing.getTagList();
+        this.seoTitle = listing.getSeoTitle();
+        this.seoDescription = listing.getSeoDescription();
+        this.negotiable = listing.isNegotiable();
+        this.featured = listing.isFeatured();
+        this.premium = listing.isPremium();
+        this.allowOffers = listing.isAllowOffers();
+        this.minimumOffer = listing.getMinimumOffer();
+        this.expiresAt = listing.getExpiresAt();
+        this.publishedAt = listing.getPublishedAt();
+        this.createdAt = listing.getCreatedAt();
+        this.updatedAt = listing.getUpdatedAt();
+        this.category = listing.getCategory() != null ? new CategorySummary(listing.getCategory()) : null;
+        this.seller = listing.getSeller() != null ? new SellerSummary(listing.getSeller()) : null;
+        List<AttributeValue> attributeValues = new ArrayList<>();
+        listing.getAttributes().stream()
+            .sorted(Comparator.comparingInt(ListingAttribute::getDisplayOrder))
+            .forEach(attribute -> attributeValues.add(new AttributeValue(attribute)));
+        this.attributes = attributeValues;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public BigDecimal getPrice() { return price; }
+    public BigDecimal getOriginalPrice() { return originalPrice; }
+    public String getDiscountPercentage() { return discountPercentage; }
+    public Listing.ListingType getListingType() { return listingType; }
+    public Listing.ConditionType getConditionType() { return conditionType; }
+    public Listing.Status getStatus() { return status; }
+    public String getLocation() { return location; }
+    public String getCity() { return city; }
+    public String getDistrict() { return district; }
+    public BigDecimal getLatitude() { return latitude; }
+    public BigDecimal getLongitude() { return longitude; }
+    public String getMainImage() { return mainImage; }
+    public List<String> getImageUrls() { return imageUrls; }
+    public List<ListingImage> getImageVariants() { return imageVariants; }
+    public int getFeaturedImageIndex() { return featuredImageIndex; }
+    public Integer getQuantityAvailable() { return quantityAvailable; }
+    public Integer getMinOrderQuantity() { return minOrderQuantity; }
+    public BigDecimal getWeightKg() { return weightKg; }
+    public String getDimensions() { return dimensions; }
+    public String getBrand() { return brand; }
+    public String getModel() { return model; }
+    public String getColor() { return color; }
+    public String getSize() { return size; }
+    public String getMaterial() { return material; }
+    public String getSku() { return sku; }
+    public String getBarcode() { return barcode; }
+    public List<String> getTags() { return tags; }
+    public String getSeoTitle() { return seoTitle; }
+    public String getSeoDescription() { return seoDescription; }
+    public boolean isNegotiable() { return negotiable; }
+    public boolean isFeatured() { return featured; }
+    public boolean isPremium() { return premium; }
+    public boolean isAllowOffers() { return allowOffers; }
+    public BigDecimal getMinimumOffer() { return minimumOffer; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public CategorySummary getCategory() { return category; }
+    public SellerSummary getSeller() { return seller; }
+    public List<AttributeValue> getAttributes() { return attributes; }
+
+    public static class CategorySummary {
+        private final Long id;
+        private final String name;
+        private final String slug;
+
+        public CategorySummary(Category category) {
+            this.id = category.getId();
+            this.name = category.getName();
+            this.slug = category.getSlug();
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public String getSlug() { return slug; }
+    }
+
+    /** Only what buyers see about a seller; never account or contact details. */
+    public static class SellerSummary {
+        private final Long id;
+        private final String name;
+        private final String profileImage;
+        private final String city;
+        private final Double ratingAverage;
+        private final int ratingCount;
+        private final int totalSales;
+        private final boolean phoneVerified;
+        private final LocalDateTime memberSince;
+
+        public SellerSummary(User seller) {
+            this.id = seller.getId();
+            this.name = seller.getFirstName() + " " + seller.getLastName();
+            this.profileImage = seller.getProfileImage();
+            this.city = seller.getCity();
+            this.ratingAverage = seller.getRatingAverage();
+            this.ratingCount = seller.getRatingCount();
+            this.totalSales = seller.getTotalSales();
+            this.phoneVerified = seller.isPhoneVerified();
+            this.memberSince = seller.getCreatedAt();
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public String getProfileImage() { return profileImage; }
+        public String getCity() { return city; }
+        public Double getRatingAverage() { return ratingAverage; }
+        public int getRatingCount() { return ratingCount; }
+        public int getTotalSales() { return totalSales; }
+        public boolean isPhoneVerified() { return phoneVerified; }
+        public LocalDateTime getMemberSince() { return memberSince; }
+    }
+
+    public static class AttributeValue {
+        private final String name;
+        private final String value;
+        private final ListingAttribute.AttributeType type;
+
+        public AttributeValue(ListingAttribute attribute) {
+            this.name = attribute.getAttributeName();
+            this.value = attribute.getAttributeValue();
+            this.type = attribute.getAttributeType();
+        }
+
+        public String getName() { return name; }
+        public String getValue() { return value; }
+        public ListingAttribute.AttributeType getType() { return type; }
+    }
+}
@@ -0,0 +1,40 @@
+package com.linka.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Outcome of a bulk import: ids of the created listings and the rows that were rejected. */
+public class ListingImportResult {
+
+    private final List<Long> listingIds = new ArrayList<>();
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void imported(Long id) {
+        listingIds.add(id);
+    }
+
+    public void rejected(int row, String error) {
+        errors.add(new RowError(row, error));
+    }
+
+    // Getters
+    public int getImported() { return listingIds.size(); }
+    public int getFailed() { return errors.size(); }
+    public List<Long> getListingIds() { return listingIds; }
+    public List<RowError> getErrors() { return errors; }
+
+    /** A rejected row, numbered from 1 in input order (CSV rows exclude the header). */
+    public static class RowError {
+        private final int row;
+        private final String error;
+
+        public RowError(int row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+
+        // Getters
+        public int getRow() { return row; }
+        public String getError() { return error; }
+    }
+}
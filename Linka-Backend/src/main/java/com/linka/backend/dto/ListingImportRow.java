@@ -0,0 +1,116 @@
+package com.linka.backend.dto;
+
+import com.linka.backend.entity.Listing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One listing in a bulk import, from a JSON array element or a CSV row. The category is given
+ * by id or slug; images are URLs of already uploaded files; attributes keep their order.
+ * Constraints are checked on the {@link Listing} built from the row.
+ */
+public class ListingImportRow {
+
+    private String title;
+    private String description;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Long categoryId;
+    private String categorySlug;
+    private Listing.ListingType listingType;
+    private Listing.ConditionType conditionType;
+    private String location;
+    private String city;
+    private String district;
+    private Integer quantityAvailable;
+    private String brand;
+    private String model;
+    private String color;
+    private String size;
+    private String material;
+    private String sku;
+    private String barcode;
+    private String tags;
+    private boolean negotiable = false;
+    private LocalDateTime expiresAt;
+    private List<String> imageUrls = new ArrayList<>();
+    private Map<String, String> attributes = new LinkedHashMap<>();
+
+    // Getters and Setters
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public BigDecimal getOriginalPrice() { return originalPrice; }
+    public void setOriginalPrice(BigDecimal originalPrice) { this.originalPrice = originalPrice; }
+
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+    public String getCategorySlug() { return categorySlug; }
+    public void setCategorySlug(String categorySlug) { this.categorySlug = categorySlug; }
+
+    public Listing.ListingType getListingType() { return listingType; }
+    public void setListingType(Listing.ListingType listingType) { this.listingType = listingType; }
+
+    public Listing.ConditionType getConditionType() { return conditionType; }
+    public void setConditionType(Listing.ConditionType conditionType) { this.conditionType = conditionType; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getDistrict() { return district; }
+    public void setDistrict(String district) { this.district = district; }
+
+    public Integer getQuantityAvailable() { return quantityAvailable; }
+    public void setQuantityAvailable(Integer quantityAvailable) { this.quantityAvailable = quantityAvailable; }
+
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public String getColor() { return color; }
+    public void setColor(String color) { this.color = color; }
+
+    public String getSize() { return size; }
+    public void setSize(String size) { this.size = size; }
+
+    public String getMaterial() { return material; }
+    public void setMaterial(String material) { this.material = material; }
+
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public String getBarcode() { return barcode; }
+    public void setBarcode(String barcode) { this.barcode = barcode; }
+
+    public String getTags() { return tags; }
+    public void setTags(String tags) { this.tags = tags; }
+
+    public boolean isNegotiable() { return negotiable; }
+    public void setNegotiable(boolean negotiable) { this.negotiable = negotiable; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public List<String> getImageUrls() { return imageUrls; }
+    public void setImageUrls(List<String> imageUrls) { this.imageUrls = imageUrls; }
+
+    public Map<String, String> getAttributes() { return attributes; }
+    public void setAttributes(Map<String, String> attributes) { this.attributes = attributes; }
+}
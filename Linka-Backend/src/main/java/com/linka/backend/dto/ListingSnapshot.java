@@ -0,0 +1,62 @@
+package com.linka.backend.dto;
+
+import com.linka.backend.entity.Listing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The columns of a listing that the in-memory read models (facets, suggestions, geo index,
+ * rankings) are built from. Rebuilds page these through a JPQL constructor expression instead
+ * of loading entities; committed changes are turned into one with {@link #of}.
+ */
+public record ListingSnapshot(
+    Long id,
+    Listing.Status status,
+    Long categoryId,
+    String title,
+    String brand,
+    String tags,
+    Listing.ConditionType conditionType,
+    Listing.ListingType listingType,
+    String city,
+    String district,
+    boolean negotiable,
+    BigDecimal price,
+    BigDecimal latitude,
+    BigDecimal longitude,
+    int viewCount,
+    int favoriteCount,
+    int contactCount,
+    LocalDateTime createdAt) {
+
+    public static ListingSnapshot of(Listing listing) {
+        // getId() on a lazy proxy does not initialize it, so this is safe after the session closed
+        Long categoryId = listing.getCategory() != null ? listing.getCategory().getId() : null;
+        return new ListingSnapshot(listing.getId(), listing.getStatus(), categoryId, listing.getTitle(),
+            listing.getBrand(), listing.getTags(), listing.getConditionType(), listing.getListingType(),
+            listing.getCity(), listing.getDistrict(), listing.isNegotiable(), listing.getPrice(),
+            listing.getLatitude(), listing.getLongitude(), listing.getViewCount(), listing.getFavoriteCount(),
+            listing.getContactCount(), listing.getCreatedAt());
+    }
+
+    public boolean isActive() {
+        return status == Listing.Status.ACTIVE;
+    }
+
+    /** The comma-separated tags, trimmed, as {@link Listing#getTagList} splits them. */
+    public List<String> tagList() {
+        List<String> tagList = new ArrayList<>();
+        if (tags != null) {
+            for (String tag : tags.split(",")) {
+                String trimmed = tag.trim();
+                if (!trimmed.isEmpty()) {
+                    tagList.add(trimmed);
+                }
+            }
+        }
+        return tagList;
+    }
+}
@@ -0,0 +1,19 @@
+package com.linka.backend.dto;
+
+/**
+ * {@link ListingCard} with its distance from the point of a nearby search.
+ */
+public class NearbyListingCard extends ListingCard {
+
+    private final double distanceKm;
+
+    public NearbyListingCard(ListingCard card, double distanceKm) {
+        super(card.getId(), card.getTitle(), card.getPrice(), card.getMainImage(), card.getCity(),
+            card.getConditionType(), card.getSellerName(), card.getCategorySlug(), card.getCreatedAt(),
+            card.getImageWidth(), card.getImageHeight(), card.getImageColor(), card.getImageBlurHash());
+        this.distanceKm = distanceKm;
+    }
+
+    // Getters
+    public double getDistanceKm() { return distanceKm; }
+}
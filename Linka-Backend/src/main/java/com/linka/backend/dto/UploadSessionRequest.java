@@ -0,0 +1,20 @@
+package com.linka.backend.dto;
+
+/**
+ * Opens a resumable image upload: the exact file size and, optionally, the hex SHA-256 of the
+ * whole file, which is checked when the upload is finalized.
+ */
+public class UploadSessionRequest {
+
+    private long size;
+    private String sha256;
+
+    public UploadSessionRequest() {}
+
+    // Getters and Setters
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+}
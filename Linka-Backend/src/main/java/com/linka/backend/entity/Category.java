@@ -7,12 +7,20 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.linka.backend.event.CategoryEntityListener;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "categories")
+// Indexes mirror db/migration; keep the two in step
+@Table(name = "categories", indexes = {
+    @Index(name = "idx_categories_active_sort", columnList = "is_active, sort_order"),
+    @Index(name = "idx_categories_parent_active_sort", columnList = "parent_category_id, is_active, sort_order"),
+    @Index(name = "idx_categories_active_items", columnList = "is_active, item_count"),
+    @Index(name = "idx_categories_updated", columnList = "updated_at")
+})
+@EntityListeners(CategoryEntityListener.class)
 public class Category {
     
     @Id
@@ -2,9 +2,11 @@ package com.linka.backend.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.linka.backend.event.ListingEntityListener;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -13,11 +15,24 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "listings")
+// Indexes mirror db/migration; keep the two in step
+@Table(name = "listings", indexes = {
+    @Index(name = "idx_listings_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_listings_category_status_created", columnList = "category_id, status, created_at, id"),
+    @Index(name = "idx_listings_seller_status_created", columnList = "seller_id, status, created_at, id"),
+    @Index(name = "idx_listings_status_price", columnList = "status, price"),
+    @Index(name = "idx_listings_status_featured", columnList = "status, is_featured, featured_until"),
+    @Index(name = "idx_listings_status_expires", columnList = "status, expires_at"),
+    @Index(name = "idx_listings_status_featured_until", columnList = "status, featured_until"),
+    @Index(name = "idx_listings_updated", columnList = "updated_at")
+})
+@EntityListeners(ListingEntityListener.class)
 public class Listing {
     
+    // Pooled sequence rather than IDENTITY, so Hibernate can batch inserts (see V2 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listings_seq")
+    @SequenceGenerator(name = "listings_seq", sequenceName = "listings_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Title is required")
@@ -75,11 +90,36 @@ public class Listing {
     @Column(name = "main_image")
     private String mainImage;
     
+    // Card-sized copy of mainImage, set once the image pipeline has processed it
+    @Column(name = "card_image")
+    private String cardImage;
+    
+    // Layout hints for cardImage, so list pages can reserve its box and paint a placeholder
+    @Column(name = "card_width")
+    private Integer cardWidth;
+    
+    @Column(name = "card_height")
+    private Integer cardHeight;
+    
+    @Column(name = "card_color", length = 7)
+    private String cardColor;
+    
+    @Column(name = "card_blur_hash", length = 64)
+    private String cardBlurHash;
+    
     @ElementCollection
     @CollectionTable(name = "listing_images", joinColumns = @JoinColumn(name = "listing_id"))
     @Column(name = "image_url")
     private List<String> imageUrls = new ArrayList<>();
     
+    // In imageUrls order; initialized for a whole batch at once when several listings are loaded together
+    @BatchSize(size = 50)
+    @ElementCollection
+    @CollectionTable(name = "listing_image_variants", joinColumns = @JoinColumn(name = "listing_id"),
+        indexes = @Index(name = "idx_listing_image_variants_listing", columnList = "listing_id"))
+    @OrderColumn(name = "variant_order")
+    private List<ListingImage> imageVariants = new ArrayList<>();
+    
     @Column(name = "featured_image_index", nullable = false)
     private int featuredImageIndex = 0;
     
@@ -127,13 +167,14 @@ public class Listing {
     @Size(max = 160, message = "SEO description cannot exceed 160 characters")
     private String seoDescription;
     
-    @Column(name = "view_count", nullable = false)
+    // Engagement counters are only written by ListingCounterService, never by entity updates
+    @Column(name = "view_count", nullable = false, updatable = false)
     private int viewCount = 0;
     
-    @Column(name = "favorite_count", nullable = false)
+    @Column(name = "favorite_count", nullable = false, updatable = false)
     private int favoriteCount = 0;
     
-    @Column(name = "contact_count", nullable = false)
+    @Column(name = "contact_count", nullable = false, updatable = false)
     private int contactCount = 0;
     
     @Column(name = "is_negotiable", nullable = false)
@@ -183,6 +224,8 @@ public class Listing {
     @OneToMany(mappedBy = "listing", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Review> reviews = new ArrayList<>();
     
+    // Initialized for a whole batch at once when several listings are loaded together
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "listing", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ListingAttribute> attributes = new ArrayList<>();
     
@@ -277,9 +320,27 @@ public class Listing {
     public String getMainImage() { return mainImage; }
     public void setMainImage(String mainImage) { this.mainImage = mainImage; }
     
+    public String getCardImage() { return cardImage; }
+    public void setCardImage(String cardImage) { this.cardImage = cardImage; }
+    
+    public Integer getCardWidth() { return cardWidth; }
+    public void setCardWidth(Integer cardWidth) { this.cardWidth = cardWidth; }
+    
+    public Integer getCardHeight() { return cardHeight; }
+    public void setCardHeight(Integer cardHeight) { this.cardHeight = cardHeight; }
+    
+    public String getCardColor() { return cardColor; }
+    public void setCardColor(String cardColor) { this.cardColor = cardColor; }
+    
+    public String getCardBlurHash() { return cardBlurHash; }
+    public void setCardBlurHash(String cardBlurHash) { this.cardBlurHash = cardBlurHash; }
+    
     public List<String> getImageUrls() { return imageUrls; }
     public void setImageUrls(List<String> imageUrls) { this.imageUrls = imageUrls; }
     
+    public List<ListingImage> getImageVariants() { return imageVariants; }
+    public void setImageVariants(List<ListingImage> imageVariants) { this.imageVariants = imageVariants; }
+    
     public int getFeaturedImageIndex() { return featuredImageIndex; }
     public void setFeaturedImageIndex(int featuredImageIndex) { this.featuredImageIndex = featuredImageIndex; }
     
@@ -8,8 +8,10 @@ import jakarta.validation.constraints.Size;
 @Table(name = "listing_attributes")
 public class ListingAttribute {
     
+    // Pooled sequence rather than IDENTITY, so Hibernate can batch inserts (see V2 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listing_attributes_seq")
+    @SequenceGenerator(name = "listing_attributes_seq", sequenceName = "listing_attributes_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Attribute name is required")
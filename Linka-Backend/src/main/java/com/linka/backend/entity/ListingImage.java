@@ -0,0 +1,72 @@
+package com.linka.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Resized copies of one uploaded listing photo, written by the image pipeline. The full-size
+ * copy is the URL that ends up in {@code Listing.imageUrls}; thumb and card are for grids.
+ * Size, colour and BlurHash let clients lay the photo out and paint a placeholder before any
+ * bytes arrive; they describe the full-size copy and are null on rows from before V5.
+ */
+@Embeddable
+public class ListingImage {
+
+    @Column(name = "full_url", nullable = false)
+    private String fullUrl;
+
+    @Column(name = "card_url", nullable = false)
+    private String cardUrl;
+
+    @Column(name = "thumb_url", nullable = false)
+    private String thumbUrl;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    // Average colour as #rrggbb
+    @Column(name = "dominant_color", length = 7)
+    private String dominantColor;
+
+    @Column(name = "blur_hash", length = 64)
+    private String blurHash;
+
+    public ListingImage() {}
+
+    public ListingImage(String fullUrl, String cardUrl, String thumbUrl) {
+        this.fullUrl = fullUrl;
+        this.cardUrl = cardUrl;
+        this.thumbUrl = thumbUrl;
+    }
+
+    // Getters and Setters
+    public String getFullUrl() { return fullUrl; }
+    public void setFullUrl(String fullUrl) { this.fullUrl = fullUrl; }
+
+    public String getCardUrl() { return cardUrl; }
+    public void setCardUrl(String cardUrl) { this.cardUrl = cardUrl; }
+
+    public String getThumbUrl() { return thumbUrl; }
+    public void setThumbUrl(String thumbUrl) { this.thumbUrl = thumbUrl; }
+
+    public Integer getWidth() { return width; }
+    public void setWidth(Integer width) { this.width = width; }
+
+    public Integer getHeight() { return height; }
+    public void setHeight(Integer height) { this.height = height; }
+
+    public Long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(Long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public String getDominantColor() { return dominantColor; }
+    public void setDominantColor(String dominantColor) { this.dominantColor = dominantColor; }
+
+    public String getBlurHash() { return blurHash; }
+    public void setBlurHash(String blurHash) { this.blurHash = blurHash; }
+}
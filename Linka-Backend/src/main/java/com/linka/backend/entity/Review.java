@@ -11,7 +11,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+// Indexes mirror db/migration; keep the two in step
+@Table(name = "reviews", indexes = {
+    @Index(name = "idx_reviews_reviewer", columnList = "reviewer_id"),
+    @Index(name = "idx_reviews_reviewee", columnList = "reviewee_id")
+})
 public class Review {
     
     @Id
@@ -0,0 +1,84 @@
+package com.linka.backend.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable image upload: the client declares the size, sends the bytes in chunks at
+ * increasing offsets and finalizes it, after which {@code imageUrl} is set and the session
+ * holds one reference to that blob until a listing claims it or the session expires.
+ */
+@Entity
+// Indexes mirror db/migration; keep the two in step
+@Table(name = "upload_sessions", indexes = {
+    @Index(name = "idx_upload_sessions_expires", columnList = "expires_at"),
+    @Index(name = "idx_upload_sessions_owner", columnList = "owner_id, expires_at")
+})
+public class UploadSession {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes;
+
+    // Optional SHA-256 of the whole file, checked when the upload is finalized
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "image_url")
+    private String imageUrl;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public UploadSession() {}
+
+    public UploadSession(String id, Long ownerId, long sizeBytes, String sha256, LocalDateTime expiresAt) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.sizeBytes = sizeBytes;
+        this.sha256 = sha256;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isComplete() { return imageUrl != null; }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getOwnerId() { return ownerId; }
+    public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public long getReceivedBytes() { return receivedBytes; }
+    public void setReceivedBytes(long receivedBytes) { this.receivedBytes = receivedBytes; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
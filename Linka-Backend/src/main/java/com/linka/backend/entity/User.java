@@ -14,7 +14,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+// Indexes mirror db/migration; keep the two in step
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_created", columnList = "created_at"),
+    @Index(name = "idx_users_last_login", columnList = "last_login"),
+    @Index(name = "idx_users_rating", columnList = "rating_average, rating_count")
+})
 public class User {
     
     @Id
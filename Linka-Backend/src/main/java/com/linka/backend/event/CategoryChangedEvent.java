@@ -0,0 +1,18 @@
+package com.linka.backend.event;
+
+import com.linka.backend.entity.Category;
+
+/**
+ * Published whenever a category row is inserted, updated (including its item count) or
+ * deleted through JPA, so cached category lists can be dropped after commit.
+ */
+public class CategoryChangedEvent {
+
+    private final Category category;
+
+    public CategoryChangedEvent(Category category) {
+        this.category = category;
+    }
+
+    public Category getCategory() { return category; }
+}
@@ -0,0 +1,24 @@
+package com.linka.backend.event;
+
+import com.linka.backend.entity.Category;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener for {@link Category}, see {@link ListingEntityListener}.
+ */
+public class CategoryEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Category category) {
+        eventPublisher.publishEvent(new CategoryChangedEvent(category));
+    }
+}
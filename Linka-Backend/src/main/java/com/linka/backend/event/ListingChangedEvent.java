@@ -0,0 +1,34 @@
+package com.linka.backend.event;
+
+import com.linka.backend.entity.Listing;
+
+/**
+ * Published whenever a listing row is inserted, updated or deleted through JPA. Read-side
+ * structures (search index, caches, in-memory rankings) listen for it after commit to stay
+ * in sync with the database.
+ */
+public class ListingChangedEvent {
+
+    public enum Type {
+        CREATED,
+        SAVED,
+        DELETED
+    }
+
+    private final Listing listing;
+    private final Type type;
+
+    public ListingChangedEvent(Listing listing, Type type) {
+        this.listing = listing;
+        this.type = type;
+    }
+
+    public Listing getListing() { return listing; }
+    public Type getType() { return type; }
+
+    public Long getListingId() { return listing.getId(); }
+
+    public boolean isCreated() { return type == Type.CREATED; }
+
+    public boolean isDeleted() { return type == Type.DELETED; }
+}
@@ -0,0 +1,19 @@
+package com.linka.backend.event;
+
+import java.util.List;
+
+/**
+ * Published by the engagement counters when they drop the in-memory totals of listings that
+ * have been idle for a while. Anything that cached figures relative to those totals must
+ * forget them, since the next hit starts counting from zero again.
+ */
+public class ListingCountersRetiredEvent {
+
+    private final List<Long> listingIds;
+
+    public ListingCountersRetiredEvent(List<Long> listingIds) {
+        this.listingIds = listingIds;
+    }
+
+    public List<Long> getListingIds() { return listingIds; }
+}
@@ -0,0 +1,25 @@
+package com.linka.backend.event;
+
+/**
+ * Published by the engagement counters for every recorded view, favorite or contact, so
+ * in-memory rankings can update as hits arrive instead of waiting for the counter flush.
+ */
+public class ListingEngagementEvent {
+
+    public enum Type {
+        VIEW,
+        FAVORITE,
+        CONTACT
+    }
+
+    private final Long listingId;
+    private final Type type;
+
+    public ListingEngagementEvent(Long listingId, Type type) {
+        this.listingId = listingId;
+        this.type = type;
+    }
+
+    public Long getListingId() { return listingId; }
+    public Type getType() { return type; }
+}
@@ -0,0 +1,33 @@
+package com.linka.backend.event;
+
+import com.linka.backend.entity.Listing;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener for {@link Listing}. Instantiated by Hibernate through Spring's bean
+ * container, so the event publisher is injected like in any other bean.
+ */
+public class ListingEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void onCreated(Listing listing) {
+        eventPublisher.publishEvent(new ListingChangedEvent(listing, ListingChangedEvent.Type.CREATED));
+    }
+
+    @PostUpdate
+    public void onSaved(Listing listing) {
+        eventPublisher.publishEvent(new ListingChangedEvent(listing, ListingChangedEvent.Type.SAVED));
+    }
+
+    @PostRemove
+    public void onRemoved(Listing listing) {
+        eventPublisher.publishEvent(new ListingChangedEvent(listing, ListingChangedEvent.Type.DELETED));
+    }
+}
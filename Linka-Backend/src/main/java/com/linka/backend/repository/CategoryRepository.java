@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, CategoryRepositoryCustom {
 
     Optional<Category> findBySlug(String slug);
 
@@ -40,6 +40,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     @Query("SELECT c FROM Category c WHERE c.parentCategoryId = :parentId AND c.active = true ORDER BY c.sortOrder ASC")
     List<Category> findSubcategories(@Param("parentId") Long parentId);
 
+    /** Latest update and row count, which together change whenever any category is written or deleted. */
+    @Query("SELECT MAX(c.updatedAt), COUNT(c) FROM Category c")
+    List<Object[]> findCatalogVersion();
+
     @Query("SELECT c FROM Category c WHERE c.featured = true AND c.active = true ORDER BY c.sortOrder ASC")
     List<Category> findFeaturedCategories();
 
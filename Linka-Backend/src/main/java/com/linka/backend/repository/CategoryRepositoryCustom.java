@@ -0,0 +1,15 @@
+package com.linka.backend.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Map;
+
+/**
+ * Sparse fieldset reads, see {@link ListingRepositoryCustom}.
+ */
+public interface CategoryRepositoryCustom {
+
+    /** All categories, or active ones matching the search, with only the requested fields. */
+    Page<Map<String, Object>> findFields(String fields, String search, Pageable pageable);
+}
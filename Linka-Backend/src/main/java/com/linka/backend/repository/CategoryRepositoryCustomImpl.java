@@ -0,0 +1,56 @@
+package com.linka.backend.repository;
+
+import com.linka.backend.entity.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+public class CategoryRepositoryCustomImpl implements CategoryRepositoryCustom {
+
+    static final SparseFieldset<Category> FIELDS = new SparseFieldset<>(Category.class)
+        .column("id", "id")
+        .column("name", "name")
+        .column("description", "description")
+        .column("slug", "slug")
+        .column("iconName", "iconName")
+        .column("emojiSymbol", "emojiSymbol")
+        .column("gradientClass", "gradientClass")
+        .column("colorCode", "colorCode")
+        .column("parentCategoryId", "parentCategoryId")
+        .column("sortOrder", "sortOrder")
+        .column("active", "active")
+        .column("featured", "featured")
+        .column("itemCount", "itemCount")
+        .column("metaTitle", "metaTitle")
+        .column("metaDescription", "metaDescription")
+        .column("seoKeywords", "seoKeywords")
+        .column("createdAt", "createdAt")
+        .column("updatedAt", "updatedAt")
+        .preset("card", "id", "name", "slug", "iconName", "emojiSymbol", "colorCode", "itemCount");
+
+    static {
+        FIELDS.preset("detail", FIELDS.allColumns());
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findFields(String fields, String search, Pageable pageable) {
+        if (search == null || search.trim().isEmpty()) {
+            return FIELDS.page(entityManager, FIELDS.resolve(fields), null, pageable);
+        }
+        // Same filter and order as searchActiveCategories
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("sortOrder"));
+        return FIELDS.page(entityManager, FIELDS.resolve(fields), (cb, root) -> cb.and(
+            cb.isTrue(root.get("active")),
+            cb.or(
+                cb.like(root.get("name"), "%" + search + "%"),
+                cb.like(root.get("description"), "%" + search + "%"))), sorted);
+    }
+}
@@ -1,5 +1,7 @@
 package com.linka.backend.repository;
 
+import com.linka.backend.dto.ListingCard;
+import com.linka.backend.dto.ListingSnapshot;
 import com.linka.backend.entity.Category;
 import com.linka.backend.entity.Listing;
 import com.linka.backend.entity.User;
@@ -12,10 +14,18 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ListingRepository extends JpaRepository<Listing, Long> {
+public interface ListingRepository extends JpaRepository<Listing, Long>, ListingRepositoryCustom {
+
+    // List endpoints select ListingCard projections in a single query instead of full entities;
+    // the image is the card-sized copy once the image pipeline has made one, with its layout hints
+    String CARD_SELECT = "SELECT new com.linka.backend.dto.ListingCard(l.id, l.title, l.price, COALESCE(l.cardImage, l.mainImage), l.city, " +
+        "l.conditionType, CONCAT(s.firstName, ' ', s.lastName), c.slug, l.createdAt, " +
+        "l.cardWidth, l.cardHeight, l.cardColor, l.cardBlurHash) FROM Listing l JOIN l.seller s JOIN l.category c ";
 
     List<Listing> findByStatus(Listing.Status status);
 
@@ -25,32 +35,28 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
 
     List<Listing> findByStatusAndFeaturedTrue(Listing.Status status);
 
-    @Query("SELECT l FROM Listing l WHERE l.status = :status ORDER BY l.createdAt DESC")
-    Page<Listing> findByStatusOrderByCreatedAt(@Param("status") Listing.Status status, Pageable pageable);
-
-    @Query("SELECT l FROM Listing l WHERE l.seller.id = :sellerId AND l.status = :status ORDER BY l.createdAt DESC")
-    Page<Listing> findBySellerAndStatus(@Param("sellerId") Long sellerId, @Param("status") Listing.Status status, Pageable pageable);
-
-    @Query("SELECT l FROM Listing l WHERE l.category.id = :categoryId AND l.status = :status ORDER BY l.createdAt DESC")
-    Page<Listing> findByCategoryAndStatus(@Param("categoryId") Long categoryId, @Param("status") Listing.Status status, Pageable pageable);
+    @Query(value = CARD_SELECT + "WHERE l.status = :status ORDER BY l.createdAt DESC",
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.status = :status")
+    Page<ListingCard> findByStatusOrderByCreatedAt(@Param("status") Listing.Status status, Pageable pageable);
 
-    @Query("SELECT l FROM Listing l WHERE l.status = :status AND l.featured = true ORDER BY l.featuredUntil DESC NULLS LAST")
-    List<Listing> findFeaturedListings(@Param("status") Listing.Status status);
+    @Query(value = CARD_SELECT + "WHERE s.id = :sellerId AND l.status = :status ORDER BY l.createdAt DESC",
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.seller.id = :sellerId AND l.status = :status")
+    Page<ListingCard> findBySellerAndStatus(@Param("sellerId") Long sellerId, @Param("status") Listing.Status status, Pageable pageable);
 
-    @Query("SELECT l FROM Listing l WHERE l.title LIKE %:search% OR l.description LIKE %:search% OR l.tags LIKE %:search% AND l.status = :status ORDER BY l.createdAt DESC")
-    Page<Listing> searchListings(@Param("search") String search, @Param("status") Listing.Status status, Pageable pageable);
+    @Query(value = CARD_SELECT + "WHERE c.id = :categoryId AND l.status = :status ORDER BY l.createdAt DESC",
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.category.id = :categoryId AND l.status = :status")
+    Page<ListingCard> findByCategoryAndStatus(@Param("categoryId") Long categoryId, @Param("status") Listing.Status status, Pageable pageable);
 
-    @Query("SELECT l FROM Listing l WHERE l.price BETWEEN :minPrice AND :maxPrice AND l.status = :status ORDER BY l.price ASC")
-    Page<Listing> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice, @Param("status") Listing.Status status, Pageable pageable);
+    @Query(CARD_SELECT + "WHERE l.status = :status AND l.featured = true ORDER BY l.featuredUntil DESC NULLS LAST")
+    List<ListingCard> findFeaturedListings(@Param("status") Listing.Status status);
 
-    @Query("SELECT l FROM Listing l WHERE l.location LIKE %:location% AND l.status = :status ORDER BY l.createdAt DESC")
-    Page<Listing> findByLocation(@Param("location") String location, @Param("status") Listing.Status status, Pageable pageable);
+    @Query(value = CARD_SELECT + "WHERE l.price BETWEEN :minPrice AND :maxPrice AND l.status = :status ORDER BY l.price ASC",
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.price BETWEEN :minPrice AND :maxPrice AND l.status = :status")
+    Page<ListingCard> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice, @Param("status") Listing.Status status, Pageable pageable);
 
-    @Query("SELECT l FROM Listing l WHERE l.createdAt >= :since AND l.status = :status ORDER BY l.viewCount DESC")
-    List<Listing> findTrendingListings(@Param("since") LocalDateTime since, @Param("status") Listing.Status status);
-
-    @Query("SELECT l FROM Listing l WHERE l.status = :status ORDER BY l.viewCount DESC, l.favoriteCount DESC")
-    List<Listing> findPopularListings(@Param("status") Listing.Status status, Pageable pageable);
+    @Query(value = CARD_SELECT + "WHERE l.location LIKE %:location% AND l.status = :status ORDER BY l.createdAt DESC",
+           countQuery = "SELECT COUNT(l) FROM Listing l WHERE l.location LIKE %:location% AND l.status = :status")
+    Page<ListingCard> findByLocation(@Param("location") String location, @Param("status") Listing.Status status, Pageable pageable);
 
     @Query("SELECT l FROM Listing l WHERE l.expiresAt <= :now AND l.status = :status")
     List<Listing> findExpiredListings(@Param("now") LocalDateTime now, @Param("status") Listing.Status status);
@@ -61,6 +67,48 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     @Query("SELECT COUNT(l) FROM Listing l WHERE l.seller.id = :sellerId AND l.status = :status")
     Long countBySellerAndStatus(@Param("sellerId") Long sellerId, @Param("status") Listing.Status status);
 
-    @Query("SELECT l FROM Listing l WHERE l.status = :status ORDER BY l.createdAt DESC")
-    List<Listing> findLatestListings(@Param("status") Listing.Status status, Pageable pageable);
-}
\ No newline at end of file
+    @Query(CARD_SELECT + "WHERE l.status = :status ORDER BY l.createdAt DESC")
+    List<ListingCard> findLatestListings(@Param("status") Listing.Status status, Pageable pageable);
+
+    @Query("SELECT l.viewCount, l.favoriteCount, l.contactCount, l.updatedAt FROM Listing l WHERE l.id = :id")
+    List<Object[]> findCountsById(@Param("id") Long id);
+
+    @Query("SELECT l.favoriteCount FROM Listing l WHERE l.id = :id")
+    Optional<Integer> findFavoriteCountById(@Param("id") Long id);
+
+    @Query("SELECT l.contactCount FROM Listing l WHERE l.id = :id")
+    Optional<Integer> findContactCountById(@Param("id") Long id);
+
+    // Keyset (cursor) variants: seek past (createdAt, id) instead of OFFSET and never issue a COUNT query
+
+    @Query(CARD_SELECT + "WHERE l.status = :status AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingCard> findByStatusAfter(@Param("status") Listing.Status status, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE c.id = :categoryId AND l.status = :status AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingCard> findByCategoryAndStatusAfter(@Param("categoryId") Long categoryId, @Param("status") Listing.Status status, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE s.id = :sellerId AND l.status = :status AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingCard> findBySellerAndStatusAfter(@Param("sellerId") Long sellerId, @Param("status") Listing.Status status, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE l.location LIKE %:location% AND l.status = :status AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) ORDER BY l.createdAt DESC, l.id DESC")
+    List<ListingCard> findByLocationAfter(@Param("location") String location, @Param("status") Listing.Status status, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE l.id IN :ids AND l.status = :status")
+    List<ListingCard> findCardsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") Listing.Status status);
+
+    @Query("SELECT l FROM Listing l LEFT JOIN FETCH l.category LEFT JOIN FETCH l.seller LEFT JOIN FETCH l.imageUrls WHERE l.id IN :ids")
+    List<Listing> findWithImagesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Batches for (re)building in-memory read models, walked by id so each batch is an index seek
+
+    @Query("SELECT l FROM Listing l WHERE l.id > :afterId ORDER BY l.id ASC")
+    List<Listing> findBatchAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.linka.backend.dto.ListingSnapshot(l.id, l.status, l.category.id, l.title, l.brand, l.tags, " +
+           "l.conditionType, l.listingType, l.city, l.district, l.negotiable, l.price, l.latitude, l.longitude, " +
+           "l.viewCount, l.favoriteCount, l.contactCount, l.createdAt) FROM Listing l WHERE l.id > :afterId ORDER BY l.id ASC")
+    List<ListingSnapshot> findSnapshotsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT l FROM Listing l WHERE l.updatedAt > :since AND l.id > :afterId ORDER BY l.id ASC")
+    List<Listing> findUpdatedBatchAfterId(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+}
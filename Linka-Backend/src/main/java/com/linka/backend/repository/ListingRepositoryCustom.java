@@ -0,0 +1,39 @@
+package com.linka.backend.repository;
+
+import com.linka.backend.entity.Listing;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Sparse fieldset reads: only the columns named by a {@code ?fields=} parameter are selected,
+ * see {@link SparseFieldset}. Unknown field names throw {@link IllegalArgumentException}.
+ */
+public interface ListingRepositoryCustom {
+
+    /** ACTIVE listings, optionally in one category. */
+    Page<Map<String, Object>> findActiveFields(String fields, Long categoryId, Pageable pageable);
+
+    /**
+     * ACTIVE listings after a keyset cursor, newest first. Rows always include {@code id} and
+     * {@code createdAt} so the next cursor can be built from the last one.
+     */
+    List<Map<String, Object>> findActiveFieldsAfter(String fields, Long categoryId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    Optional<Map<String, Object>> findFieldsById(String fields, Long id);
+
+    /** The column names a fields parameter selects, for validating it before a response starts. */
+    List<String> resolveFields(String fields);
+
+    /**
+     * Every listing matching the filters (null means unfiltered), in id order, through a
+     * forward-only cursor; see {@link SparseFieldset#stream}. Close the stream when done.
+     */
+    Stream<Map<String, Object>> streamFields(String fields, Listing.Status status, Long categoryId, Long sellerId,
+                                             LocalDateTime updatedSince, int fetchSize);
+}
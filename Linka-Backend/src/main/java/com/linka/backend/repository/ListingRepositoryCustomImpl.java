@@ -0,0 +1,144 @@
+package com.linka.backend.repository;
+
+import com.linka.backend.entity.Listing;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class ListingRepositoryCustomImpl implements ListingRepositoryCustom {
+
+    // Collection-valued properties (images, tags, attributes) are only in the full detail
+    static final SparseFieldset<Listing> FIELDS = new SparseFieldset<>(Listing.class)
+        .column("id", "id")
+        .column("title", "title")
+        .column("description", "description")
+        .column("price", "price")
+        .column("originalPrice", "originalPrice")
+        .column("listingType", "listingType")
+        .column("conditionType", "conditionType")
+        .column("status", "status")
+        .column("location", "location")
+        .column("city", "city")
+        .column("district", "district")
+        .column("latitude", "latitude")
+        .column("longitude", "longitude")
+        .column("mainImage", "mainImage")
+        .column("cardImage", (cb, root) -> cb.coalesce(root.<String>get("cardImage"), root.<String>get("mainImage")))
+        .column("cardWidth", "cardWidth")
+        .column("cardHeight", "cardHeight")
+        .column("cardColor", "cardColor")
+        .column("cardBlurHash", "cardBlurHash")
+        .column("quantityAvailable", "quantityAvailable")
+        .column("minOrderQuantity", "minOrderQuantity")
+        .column("weightKg", "weightKg")
+        .column("dimensions", "dimensions")
+        .column("brand", "brand")
+        .column("model", "model")
+        .column("color", "color")
+        .column("size", "size")
+        .column("material", "material")
+        .column("sku", "sku")
+        .column("barcode", "barcode")
+        .column("seoTitle", "seoTitle")
+        .column("seoDescription", "seoDescription")
+        .column("negotiable", "negotiable")
+        .column("featured", "featured")
+        .column("premium", "premium")
+        .column("allowOffers", "allowOffers")
+        .column("minimumOffer", "minimumOffer")
+        .column("viewCount", "viewCount")
+        .column("favoriteCount", "favoriteCount")
+        .column("contactCount", "contactCount")
+        .column("expiresAt", "expiresAt")
+        .column("publishedAt", "publishedAt")
+        .column("createdAt", "createdAt")
+        .column("updatedAt", "updatedAt")
+        .column("categoryId", "category.id")
+        .column("categorySlug", "category.slug")
+        .column("categoryName", "category.name")
+        .column("sellerId", "seller.id")
+        .column("sellerName", (cb, root) -> cb.concat(cb.concat(root.get("seller").get("firstName"), " "), root.get("seller").get("lastName")))
+        .preset("card", "id", "title", "price", "mainImage", "cardImage", "cardWidth", "cardHeight", "cardColor", "cardBlurHash",
+            "city", "conditionType", "sellerName", "categorySlug", "createdAt");
+
+    static {
+        FIELDS.preset("detail", FIELDS.allColumns());
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findActiveFields(String fields, Long categoryId, Pageable pageable) {
+        return FIELDS.page(entityManager, FIELDS.resolve(fields), (cb, root) -> active(cb, root, categoryId), pageable);
+    }
+
+    @Override
+    public List<Map<String, Object>> findActiveFieldsAfter(String fields, Long categoryId, LocalDateTime createdAt, Long id, Pageable pageable) {
+        List<String> names = FIELDS.resolve(fields + ",createdAt");
+        return FIELDS.list(entityManager, names,
+            (cb, root) -> cb.and(
+                active(cb, root, categoryId),
+                cb.or(
+                    cb.lessThan(root.get("createdAt"), createdAt),
+                    cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)))),
+            (cb, root) -> List.of(cb.desc(root.get("createdAt")), cb.desc(root.get("id"))),
+            pageable.getPageSize());
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(String fields, Long id) {
+        List<Map<String, Object>> rows = FIELDS.list(entityManager, FIELDS.resolve(fields),
+            (cb, root) -> cb.equal(root.get("id"), id), null, 1);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public List<String> resolveFields(String fields) {
+        return FIELDS.resolve(fields);
+    }
+
+    @Override
+    public Stream<Map<String, Object>> streamFields(String fields, Listing.Status status, Long categoryId, Long sellerId,
+                                                    LocalDateTime updatedSince, int fetchSize) {
+        return FIELDS.stream(entityManager, FIELDS.resolve(fields),
+            (cb, root) -> {
+                List<Predicate> predicates = new ArrayList<>();
+                if (status != null) {
+                    predicates.add(cb.equal(root.get("status"), status));
+                }
+                if (categoryId != null) {
+                    predicates.add(cb.equal(root.get("category").get("id"), categoryId));
+                }
+                if (sellerId != null) {
+                    predicates.add(cb.equal(root.get("seller").get("id"), sellerId));
+                }
+                if (updatedSince != null) {
+                    predicates.add(cb.greaterThanOrEqualTo(root.get("updatedAt"), updatedSince));
+                }
+                return cb.and(predicates.toArray(new Predicate[0]));
+            },
+            (cb, root) -> List.of(cb.asc(root.get("id"))),
+            fetchSize);
+    }
+
+    private static Predicate active(CriteriaBuilder cb, Root<Listing> root, Long categoryId) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("status"), Listing.Status.ACTIVE));
+        if (categoryId != null) {
+            predicates.add(cb.equal(root.get("category").get("id"), categoryId));
+        }
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+}
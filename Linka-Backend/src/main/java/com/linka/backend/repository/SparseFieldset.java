@@ -0,0 +1,186 @@
+package com.linka.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * The properties of an entity that clients may pick with {@code ?fields=}, and the Criteria
+ * tuple queries that select only those columns.
+ *
+ * A fields parameter is a comma-separated list of property names and presets (e.g.
+ * {@code card} or {@code detail}); {@code id} is always included. Rows come back as ordered
+ * maps, so the JSON carries exactly the requested properties.
+ */
+public final class SparseFieldset<T> {
+
+    private final Class<T> entityClass;
+    private final Map<String, BiFunction<CriteriaBuilder, Root<T>, Expression<?>>> columns = new LinkedHashMap<>();
+    private final Map<String, List<String>> presets = new LinkedHashMap<>();
+
+    public SparseFieldset(Class<T> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    /** A property read straight from an attribute path such as {@code category.slug}. */
+    public SparseFieldset<T> column(String name, String path) {
+        return column(name, (cb, root) -> {
+            String[] parts = path.split("\\.");
+            Path<?> expression = root.get(parts[0]);
+            for (int i = 1; i < parts.length; i++) {
+                expression = expression.get(parts[i]);
+            }
+            return expression;
+        });
+    }
+
+    public SparseFieldset<T> column(String name, BiFunction<CriteriaBuilder, Root<T>, Expression<?>> expression) {
+        columns.put(name, expression);
+        return this;
+    }
+
+    public SparseFieldset<T> preset(String name, String... fields) {
+        presets.put(name, List.of(fields));
+        return this;
+    }
+
+    /** Every property name, the widest selection a preset can use. */
+    public String[] allColumns() {
+        return columns.keySet().toArray(new String[0]);
+    }
+
+    /** Expands presets and validates names; {@code id} always comes first. */
+    public List<String> resolve(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String raw : fields.split(",")) {
+            String name = raw.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (presets.containsKey(name)) {
+                names.addAll(presets.get(name));
+            } else if (columns.containsKey(name)) {
+                names.add(name);
+            } else {
+                throw new IllegalArgumentException("Unknown field '" + name + "'; use one of " + presets.keySet() + " or " + columns.keySet());
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /** One page of rows, sorted by the pageable's entity properties. */
+    public Page<Map<String, Object>> page(EntityManager entityManager, List<String> names,
+                                          BiFunction<CriteriaBuilder, Root<T>, Predicate> where, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = select(cb, names, where);
+        Root<T> root = rootOf(query);
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            orders.add(order.isAscending() ? cb.asc(root.get(order.getProperty())) : cb.desc(root.get(order.getProperty())));
+        }
+        query.orderBy(orders);
+        TypedQuery<Tuple> typed = entityManager.createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize());
+        List<Map<String, Object>> rows = toRows(typed.getResultList(), names);
+
+        CriteriaQuery<Long> count = cb.createQuery(Long.class);
+        Root<T> countRoot = count.from(entityClass);
+        count.select(cb.count(countRoot));
+        if (where != null) {
+            count.where(where.apply(cb, countRoot));
+        }
+        return new PageImpl<>(rows, pageable, entityManager.createQuery(count).getSingleResult());
+    }
+
+    /** Up to {@code limit} rows in the given order, e.g. for keyset paging. */
+    public List<Map<String, Object>> list(EntityManager entityManager, List<String> names,
+                                          BiFunction<CriteriaBuilder, Root<T>, Predicate> where,
+                                          BiFunction<CriteriaBuilder, Root<T>, List<Order>> orderBy, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = select(cb, names, where);
+        if (orderBy != null) {
+            query.orderBy(orderBy.apply(cb, rootOf(query)));
+        }
+        return toRows(entityManager.createQuery(query).setMaxResults(limit).getResultList(), names);
+    }
+
+    /**
+     * Every matching row in the given order, read through a forward-only cursor that fetches
+     * {@code fetchSize} rows at a time. Rows are plain maps built one by one, so nothing
+     * accumulates in the persistence context. Must be consumed inside a transaction (Postgres
+     * only honours the fetch size with autocommit off) and closed by the caller.
+     */
+    public Stream<Map<String, Object>> stream(EntityManager entityManager, List<String> names,
+                                              BiFunction<CriteriaBuilder, Root<T>, Predicate> where,
+                                              BiFunction<CriteriaBuilder, Root<T>, List<Order>> orderBy, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = select(cb, names, where);
+        if (orderBy != null) {
+            query.orderBy(orderBy.apply(cb, rootOf(query)));
+        }
+        return entityManager.createQuery(query)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream()
+            .map(tuple -> toRow(tuple, names));
+    }
+
+    private CriteriaQuery<Tuple> select(CriteriaBuilder cb, List<String> names, BiFunction<CriteriaBuilder, Root<T>, Predicate> where) {
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        List<Selection<?>> selections = new ArrayList<>(names.size());
+        for (String name : names) {
+            selections.add(columns.get(name).apply(cb, root).alias(name));
+        }
+        query.multiselect(selections);
+        if (where != null) {
+            query.where(where.apply(cb, root));
+        }
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Root<T> rootOf(CriteriaQuery<?> query) {
+        return (Root<T>) query.getRoots().iterator().next();
+    }
+
+    private static List<Map<String, Object>> toRows(List<Tuple> tuples, List<String> names) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(toRow(tuple, names));
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> toRow(Tuple tuple, List<String> names) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String name : names) {
+            row.put(name, tuple.get(name));
+        }
+        return row;
+    }
+}
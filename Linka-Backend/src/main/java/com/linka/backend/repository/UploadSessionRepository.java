@@ -0,0 +1,38 @@
+package com.linka.backend.repository;
+
+import com.linka.backend.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime now);
+
+    long countByOwnerIdAndExpiresAtAfter(Long ownerId, LocalDateTime now);
+
+    @Query("SELECT COALESCE(SUM(s.sizeBytes), 0) FROM UploadSession s WHERE s.ownerId = :ownerId AND s.expiresAt > :now")
+    long sumLiveBytes(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    // Claiming and expiring both end a session by deleting its row; the delete count says
+    // which of them got there first, and only that one may use the blob reference
+
+    @Modifying
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id AND s.ownerId = :ownerId " +
+           "AND s.imageUrl IS NOT NULL AND s.expiresAt > :now")
+    int deleteClaimable(@Param("id") String id, @Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id AND s.expiresAt <= :now")
+    int deleteExpired(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id AND s.ownerId = :ownerId")
+    int deleteOwned(@Param("id") String id, @Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,286 @@
+package com.linka.backend.service;
+
+import com.linka.backend.entity.Listing;
+import com.linka.backend.entity.ListingImage;
+import com.linka.backend.repository.ListingRepository;
+import com.linka.backend.util.BlurHash;
+import com.linka.backend.util.ImageResizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background pipeline that turns a listing's uploaded photos into the variants of
+ * {@link ImageResizer}. Uploads are queued once the listing is saved, so the create request
+ * does not wait for decoding and encoding. When processing finishes, the full-size copy (with
+ * the EXIF data stripped) replaces the original URL in {@code imageUrls}, and the variants are
+ * recorded on the listing together with the size, average colour and BlurHash clients need to
+ * lay them out before they load. The original blob stays, since other listings may share it; it is
+ * removed with its variants once nothing references it (see {@link ImageUploadService}).
+ *
+ * <p>The queue is bounded. When it is full, the uploading request thread does the work itself.
+ * That slows uploaders down instead of letting the backlog grow without limit.
+ */
+@Service
+public class ImageProcessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageProcessingService.class);
+
+    private static final String URL_PREFIX = "/api/uploads/";
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${file.upload-dir:uploads/}")
+    private String uploadDir;
+
+    @Value("${linka.images.workers:0}")
+    private int workers;
+
+    @Value("${linka.images.queue-capacity:200}")
+    private int queueCapacity;
+
+    private TransactionTemplate transaction;
+    private ThreadPoolExecutor executor;
+
+    private Timer waitTimer;
+    private Timer processTimer;
+    private Counter processedCounter;
+    private Counter failedCounter;
+    private Counter callerRunsCounter;
+
+    @PostConstruct
+    public void init() {
+        transaction = new TransactionTemplate(transactionManager);
+
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            task -> {
+                Thread thread = new Thread(task, "image-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (task, pool) -> {
+                if (!pool.isShutdown()) {
+                    callerRunsCounter.increment();
+                    task.run();
+                }
+            });
+
+        Gauge.builder("linka.images.queue.depth", executor, pool -> pool.getQueue().size())
+            .description("Uploads waiting for the image pipeline")
+            .register(meterRegistry);
+        Gauge.builder("linka.images.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Image pipeline workers currently processing")
+            .register(meterRegistry);
+        waitTimer = Timer.builder("linka.images.queue.wait")
+            .description("Time an upload waits in the queue before a worker picks it up")
+            .register(meterRegistry);
+        processTimer = Timer.builder("linka.images.process")
+            .description("Time to decode one photo and write all of its variants")
+            .register(meterRegistry);
+        processedCounter = Counter.builder("linka.images.processed")
+            .description("Photos turned into variants")
+            .register(meterRegistry);
+        failedCounter = Counter.builder("linka.images.failed")
+            .description("Photos left as uploaded because they could not be processed")
+            .register(meterRegistry);
+        callerRunsCounter = Counter.builder("linka.images.caller.runs")
+            .description("Uploads processed on the request thread because the queue was full")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Image pipeline stopped with {} uploads still queued", executor.shutdownNow().size());
+        }
+    }
+
+    /** Queues the listing's freshly uploaded images. Call after the listing holding them is saved. */
+    public void submit(Long listingId, List<String> imageUrls) {
+        List<String> urls = new ArrayList<>(imageUrls);
+        if (urls.isEmpty()) {
+            return;
+        }
+        long queuedAt = System.nanoTime();
+        executor.execute(() -> {
+            waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            process(listingId, urls);
+        });
+    }
+
+    void process(Long listingId, List<String> imageUrls) {
+        Map<String, ListingImage> processed = new LinkedHashMap<>();
+        for (String url : imageUrls) {
+            try {
+                ListingImage image = processTimer.recordCallable(() -> writeVariants(url));
+                processed.put(url, image);
+                processedCounter.increment();
+            } catch (Exception e) {
+                failedCounter.increment();
+                logger.warn("Image {} of listing {} left as uploaded: {}", url, listingId, e.getMessage());
+            }
+        }
+        if (processed.isEmpty()) {
+            return;
+        }
+
+        try {
+            transaction.executeWithoutResult(status -> {
+                Listing listing = listingRepository.findById(listingId).orElse(null);
+                if (listing == null) {
+                    return;
+                }
+                List<String> urls = listing.getImageUrls();
+                processed.forEach((url, image) -> {
+                    // The same photo may be listed more than once, and the seller may have
+                    // replaced it while it was queued
+                    boolean listed = false;
+                    for (int i = 0; i < urls.size(); i++) {
+                        if (url.equals(urls.get(i))) {
+                            urls.set(i, image.getFullUrl());
+                            listed = true;
+                        }
+                    }
+                    if (!listed) {
+                        return;
+                    }
+                    listing.getImageVariants().add(image);
+                    if (url.equals(listing.getMainImage())) {
+                        Dimension card = ImageResizer.fit(image.getWidth(), image.getHeight(),
+                            ImageResizer.Variant.CARD.getMaxEdge());
+                        listing.setMainImage(image.getFullUrl());
+                        listing.setCardImage(image.getCardUrl());
+                        listing.setCardWidth(card.width);
+                        listing.setCardHeight(card.height);
+                        listing.setCardColor(image.getDominantColor());
+                        listing.setCardBlurHash(image.getBlurHash());
+                    }
+                });
+                // Variants of images no longer listed go last
+                listing.getImageVariants().sort(Comparator.comparingInt(image -> {
+                    int index = urls.indexOf(image.getFullUrl());
+                    return index < 0 ? Integer.MAX_VALUE : index;
+                }));
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not record image variants of listing {}: {}", listingId, e.getMessage());
+        }
+    }
+
+    /**
+     * Variants are named after their source blob, so a photo already processed for another
+     * listing is reused as is. Each file is rendered under a temporary name and moved into place,
+     * so readers never see a partial JPEG. The moves happen under the blob's lock once it is known
+     * to be still stored; otherwise a release running meanwhile could sweep the blob's files and
+     * miss the variants written after it.
+     */
+    private ListingImage writeVariants(String url) throws IOException {
+        String base = url.substring(0, url.lastIndexOf('.'));
+        ImageResizer.Variant[] all = ImageResizer.Variant.values();
+        String[] urls = new String[all.length];
+        boolean complete = true;
+        for (ImageResizer.Variant variant : all) {
+            urls[variant.ordinal()] = base + "_" + variant.suffix() + ".jpg";
+            complete &= Files.exists(resolve(urls[variant.ordinal()]));
+        }
+
+        if (!complete) {
+            Map<Path, Path> written = new LinkedHashMap<>();
+            try {
+                for (Map.Entry<ImageResizer.Variant, byte[]> variant : ImageResizer.render(resolve(url)).entrySet()) {
+                    Path target = resolve(urls[variant.getKey().ordinal()]);
+                    Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+                    written.put(temp, target);
+                    Files.write(temp, variant.getValue());
+                }
+                imageUploadService.whileStored(url, () -> {
+                    for (Map.Entry<Path, Path> file : written.entrySet()) {
+                        Files.move(file.getKey(), file.getValue(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                });
+            } finally {
+                for (Path temp : written.keySet()) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+        return describe(new ListingImage(urls[ImageResizer.Variant.FULL.ordinal()],
+            urls[ImageResizer.Variant.CARD.ordinal()],
+            urls[ImageResizer.Variant.THUMB.ordinal()]));
+    }
+
+    /**
+     * Reads the layout hints back from the written files, whether just rendered or reused: the
+     * full copy's header gives its size, and the placeholder comes from the small thumb.
+     */
+    private ListingImage describe(ListingImage image) throws IOException {
+        Path full = resolve(image.getFullUrl());
+        Dimension size = ImageResizer.size(full);
+        BufferedImage thumb = ImageIO.read(resolve(image.getThumbUrl()).toFile());
+        if (thumb == null) {
+            throw new IOException("Thumbnail not readable");
+        }
+        String blurHash = BlurHash.encode(thumb);
+        image.setWidth(size.width);
+        image.setHeight(size.height);
+        image.setSizeBytes(Files.size(full));
+        image.setDominantColor(BlurHash.averageColor(blurHash));
+        image.setBlurHash(blurHash);
+        return image;
+    }
+
+    /** Maps an upload URL back to its file, refusing anything outside the upload directory. */
+    private Path resolve(String url) throws IOException {
+        if (!url.startsWith(URL_PREFIX)) {
+            throw new IOException("Not an uploaded file");
+        }
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path path = root.resolve(url.substring(URL_PREFIX.length())).normalize();
+        if (!path.startsWith(root)) {
+            throw new IOException("Not an uploaded file");
+        }
+        return path;
+    }
+}
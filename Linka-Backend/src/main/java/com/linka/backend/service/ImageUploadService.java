@@ -1,83 +1,736 @@
 package com.linka.backend.service;
 
+import com.linka.backend.entity.ImageBlob;
+import com.linka.backend.entity.UploadSession;
+import com.linka.backend.repository.ImageBlobRepository;
+import com.linka.backend.repository.UploadSessionRepository;
+import com.linka.backend.util.ImageMetadata;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Stores listing photos content-addressed: the file name is the SHA-256 of the bytes, so the
+ * same photo posted on many listings is kept once and its URL never changes meaning, which
+ * lets clients and CDNs cache it forever. Each upload adds a reference in {@code image_blobs};
+ * the file goes when the last listing using it releases it.
+ *
+ * <p>Photos arrive either as multipart parts of the listing request or, for clients on flaky
+ * networks, through resumable upload sessions: the client sends the file in chunks it can
+ * retry one at a time, finalizes it, and names the finished upload ids when creating the
+ * listing. Chunks are appended to a part file, never held in memory.
+ *
+ * <p>Every upload is stored without its EXIF, XMP and similar metadata, since blob URLs are
+ * public and cached for a year.
+ */
 @Service
 public class ImageUploadService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
+
+    public static final String BLOB_URL_PREFIX = "/api/uploads/blobs/";
+
+    // Blob URL, optionally of a variant written next to it ({hash}_card.jpg)
+    private static final Pattern BLOB_URL = Pattern.compile(
+        Pattern.quote(BLOB_URL_PREFIX) + "[0-9a-f]{2}/([0-9a-f]{64})(?:_[a-z]+)?\\.[a-z0-9]+");
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    // Enough leading bytes to tell every accepted format apart
+    private static final int SNIFF_BYTES = 12;
+
     @Value("${file.upload-dir:uploads/}")
     private String uploadDir;
 
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif", "webp");
     private final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
 
-    public List<String> uploadImages(List<MultipartFile> files, String listingId) throws IOException {
-        List<String> imageUrls = new ArrayList<>();
-        
-        if (files == null || files.isEmpty()) {
-            return imageUrls;
+    @Value("${linka.images.upload.parallelism:4}")
+    private int uploadParallelism;
+
+    @Value("${linka.images.upload.max-concurrent:16}")
+    private int uploadMaxConcurrent;
+
+    // Idle time after which an unfinished or unclaimed upload session is discarded
+    @Value("${linka.images.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    // Live sessions one user may hold, and the bytes they may reserve between them, so
+    // nobody can tie up upload storage by opening sessions they never finish or claim
+    @Value("${linka.images.upload.max-sessions-per-user:20}")
+    private int maxSessionsPerUser;
+
+    @Value("${linka.images.upload.max-session-bytes-per-user:52428800}")
+    private long maxSessionBytesPerUser;
+
+    @Value("${linka.images.upload.max-per-listing:20}")
+    private int maxUploadsPerListing;
+
+    // Serializes the database row and the file of one hash, so a release that deletes the
+    // file cannot interleave with an upload that is about to reuse it. ReentrantLock rather
+    // than synchronized: uploads run on virtual threads and block on JDBC while holding it.
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    // One per live upload session, dropped when the session ends. Kept apart from the hash
+    // stripes: a slow chunk must not hold up other sessions, and a session lock is taken
+    // before a hash lock, never after.
+    private final Map<String, Lock> sessionLocks = new ConcurrentHashMap<>();
+
+    // Files being stored across all requests, so a burst of uploads cannot exhaust the disk or pool
+    private Semaphore uploadPermits;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
         }
+        uploadPermits = new Semaphore(uploadMaxConcurrent);
+    }
 
-        // Create listing-specific directory
-        Path listingDir = Paths.get(uploadDir, "listings", listingId);
-        Files.createDirectories(listingDir);
+    /**
+     * Stores each file once per distinct content and returns their URLs in upload order. Files
+     * are hashed and written concurrently on virtual threads, at most
+     * {@code linka.images.upload.parallelism} per request. Either all are stored or, when one
+     * fails, the references taken for the others are released again.
+     */
+    public List<String> uploadImages(List<MultipartFile> files) throws IOException {
+        List<MultipartFile> uploads = files == null ? List.of() : files.stream().filter(file -> !file.isEmpty()).toList();
+        if (uploads.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        for (int i = 0; i < files.size(); i++) {
-            MultipartFile file = files.get(i);
-            
-            if (file.isEmpty()) {
-                continue;
+        // Validate everything before the first write
+        for (MultipartFile file : uploads) {
+            validateFile(file);
+        }
+
+        Semaphore requestPermits = new Semaphore(uploadParallelism);
+        List<Future<String>> stored = new ArrayList<>(uploads.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : uploads) {
+                stored.add(executor.submit(() -> {
+                    requestPermits.acquire();
+                    try {
+                        uploadPermits.acquire();
+                        try {
+                            return store(file);
+                        } finally {
+                            uploadPermits.release();
+                        }
+                    } finally {
+                        requestPermits.release();
+                    }
+                }));
             }
+        } // close() waits for every task, so nothing is still writing when we roll back
 
-            // Validate file
-            validateFile(file);
+        List<String> imageUrls = new ArrayList<>(uploads.size());
+        Throwable failure = null;
+        for (Future<String> future : stored) {
+            try {
+                imageUrls.add(future.get());
+            } catch (ExecutionException e) {
+                failure = failure != null ? failure : e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure != null ? failure : e;
+            }
+        }
+        if (failure != null) {
+            for (String imageUrl : imageUrls) {
+                release(blobHash(imageUrl));
+            }
+            throw failure instanceof IOException io ? io : new IOException(failure.getMessage(), failure);
+        }
+        return imageUrls;
+    }
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = getFileExtension(originalFilename);
-            String filename = UUID.randomUUID().toString() + "." + extension;
-            
-            // Save file
-            Path targetPath = listingDir.resolve(filename);
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-            
-            // Create URL path
-            String imageUrl = "/api/uploads/listings/" + listingId + "/" + filename;
-            imageUrls.add(imageUrl);
+    /**
+     * Writes the part's cleaned copy next to the staged upload, then renames it to the blob
+     * path. A part that is not an image is rejected before any of it reaches the blobs.
+     */
+    private String store(MultipartFile file) throws IOException {
+        Path staged = stagingFile();
+        try {
+            Scan scan;
+            try (InputStream in = file.getInputStream()) {
+                scan = ingest(in, staged);
+            }
+            return retain(scan, target -> Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE));
+        } finally {
+            Files.deleteIfExists(staged);
         }
+    }
 
-        return imageUrls;
+    private record Scan(String hash, String extension, long size) {}
+
+    /**
+     * Copies an upload to {@code staged} without its metadata (see {@link ImageMetadata}), so
+     * camera details and GPS position never reach a public URL, and returns the hash, sniffed
+     * type and size of the copy: the blob is named after the bytes that are actually served.
+     */
+    private Scan ingest(InputStream in, Path staged) throws IOException {
+        BufferedInputStream source = new BufferedInputStream(in);
+        source.mark(SNIFF_BYTES);
+        byte[] head = source.readNBytes(SNIFF_BYTES);
+        source.reset();
+        // The bytes decide the stored type, not the name or Content-Type the client sent
+        String extension = sniffExtension(head, head.length);
+        if (extension == null) {
+            throw new IOException("Invalid file type. Only image files are allowed");
+        }
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(staged)), digest)) {
+            ImageMetadata.strip(source, out, extension);
+        } catch (IOException e) {
+            throw new IOException("Invalid image file: " + e.getMessage(), e);
+        }
+        long size = Files.size(staged);
+        if (size > MAX_FILE_SIZE) {
+            throw new IOException("File size exceeds maximum allowed size of 5MB");
+        }
+        return new Scan(HexFormat.of().formatHex(digest.digest()), extension, size);
     }
 
-    public void deleteListingImages(String listingId) {
+    /** Stored extension for JPEG, PNG, GIF and WebP signatures, or null for anything else. */
+    static String sniffExtension(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (length >= 8 && startsWith(head, 0, PNG_SIGNATURE)) {
+            return "png";
+        }
+        if (length >= 6 && (startsWith(head, 0, "GIF87a".getBytes()) || startsWith(head, 0, "GIF89a".getBytes()))) {
+            return "gif";
+        }
+        if (length >= 12 && startsWith(head, 0, "RIFF".getBytes()) && startsWith(head, 8, "WEBP".getBytes())) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+        return Arrays.equals(bytes, offset, offset + prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Releases the images of a deleted listing. Blob files (and their variants) are removed only
+     * once no listing references them; files from before content addressing live in the
+     * listing's own directory and are removed with it.
+     */
+    public void deleteListingImages(String listingId, List<String> imageUrls) {
+        releaseImages(imageUrls);
+
         try {
             Path listingDir = Paths.get(uploadDir, "listings", listingId);
             if (Files.exists(listingDir)) {
-                Files.walk(listingDir)
-                    .forEach(path -> {
-                        try {
-                            Files.deleteIfExists(path);
-                        } catch (IOException e) {
-                            System.err.println("Failed to delete file: " + path);
+                FileSystemUtils.deleteRecursively(listingDir);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete listing images directory {}: {}", listingId, e.getMessage());
+        }
+    }
+
+    /** Gives back the blob references behind the URLs, e.g. of images a listing never kept. */
+    public void releaseImages(List<String> imageUrls) {
+        for (String imageUrl : imageUrls) {
+            String hash = blobHash(imageUrl);
+            if (hash != null) {
+                release(hash);
+            }
+        }
+    }
+
+    // ---- Resumable upload sessions ----
+
+    /**
+     * Opens a session for a file of the given size; sha256 (hex) is optional and checked on completion.
+     *
+     * @throws IllegalStateException when the owner already holds the most sessions or bytes allowed
+     */
+    public UploadSession createUploadSession(Long ownerId, long size, String sha256) {
+        if (size <= 0 || size > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 byte and 5MB");
+        }
+        if (sha256 != null && !sha256.matches("[0-9a-fA-F]{64}")) {
+            throw new IllegalArgumentException("sha256 must be 64 hex digits");
+        }
+        // Counting and saving under one stripe keeps concurrent requests of a user within quota
+        Lock lock = lockFor("owner:" + ownerId);
+        lock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (uploadSessionRepository.countByOwnerIdAndExpiresAtAfter(ownerId, now) >= maxSessionsPerUser) {
+                throw new IllegalStateException("Too many open uploads; finish, use or cancel some first");
+            }
+            if (uploadSessionRepository.sumLiveBytes(ownerId, now) + size > maxSessionBytesPerUser) {
+                throw new IllegalStateException("Open uploads would exceed " + maxSessionBytesPerUser + " bytes");
+            }
+            return uploadSessionRepository.save(new UploadSession(UUID.randomUUID().toString(), ownerId, size,
+                sha256 == null ? null : sha256.toLowerCase(Locale.ROOT), expiry()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<UploadSession> findUploadSession(String id, Long ownerId) {
+        return uploadSessionRepository.findById(id)
+            .filter(session -> session.getOwnerId().equals(ownerId))
+            .filter(session -> session.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    /**
+     * Appends one chunk, which must start where the received bytes end, and returns the new
+     * offset. With a checksum ({@code sha256 <base64>}) the chunk is kept whole or not at all;
+     * without one, whatever arrived before a dropped connection is kept, so the client can
+     * resume from the offset {@link #findUploadSession} reports.
+     *
+     * @throws NoSuchElementException when the session is unknown, expired or someone else's
+     * @throws IllegalStateException when the offset is not the current one, another chunk is
+     *         being written, or the upload is already finished
+     */
+    public long appendChunk(String id, Long ownerId, long offset, InputStream chunk, String checksum) throws IOException {
+        MessageDigest expected = checksum == null ? null : chunkDigest(checksum);
+        // Look the session up before making a lock for it, so unknown ids leave nothing behind
+        findUploadSession(id, ownerId).orElseThrow();
+        Lock lock = sessionLock(id);
+        if (!lock.tryLock()) {
+            throw new IllegalStateException("Another chunk of this upload is being written");
+        }
+        try {
+            UploadSession session = findUploadSession(id, ownerId).orElseThrow();
+            if (session.isComplete()) {
+                throw new IllegalStateException("Upload already finished");
+            }
+            if (offset != session.getReceivedBytes()) {
+                throw new IllegalStateException("Expected offset " + session.getReceivedBytes());
+            }
+
+            Path part = partPath(session.getId());
+            Files.createDirectories(part.getParent());
+            long end = offset;
+            boolean keep = false;
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (channel.size() < offset) {
+                    // The part file lost bytes the row counted (e.g. a crash before they hit disk)
+                    session.setReceivedBytes(channel.size());
+                    uploadSessionRepository.save(session);
+                    throw new IllegalStateException("Expected offset " + channel.size());
+                }
+                // Drop anything past the offset that an earlier, rejected chunk left behind
+                channel.truncate(offset);
+                channel.position(offset);
+                try {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = chunk.read(buffer)) != -1) {
+                        if (end + read > session.getSizeBytes()) {
+                            throw new IllegalArgumentException("Chunk runs past the declared size of " + session.getSizeBytes() + " bytes");
+                        }
+                        if (expected != null) {
+                            expected.update(buffer, 0, read);
                         }
-                    });
-                Files.deleteIfExists(listingDir);
+                        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                        while (bytes.hasRemaining()) {
+                            channel.write(bytes);
+                        }
+                        end += read;
+                    }
+                    if (expected != null && !checksumMatches(expected, checksum)) {
+                        throw new IllegalArgumentException("Chunk checksum mismatch");
+                    }
+                    keep = true;
+                } catch (IOException e) {
+                    // The client went away mid-chunk; unverifiable bytes are not kept
+                    keep = expected == null;
+                    if (!keep) {
+                        throw e;
+                    }
+                    logger.debug("Upload {} interrupted at offset {}: {}", id, end, e.getMessage());
+                } finally {
+                    if (!keep) {
+                        channel.truncate(offset);
+                        end = offset;
+                    }
+                }
             }
+
+            session.setReceivedBytes(end);
+            session.setExpiresAt(expiry());
+            uploadSessionRepository.save(session);
+            return end;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turns a fully received session into a stored blob; returns the session with its image URL
+     * set. Calling it again on a finished session returns the same result.
+     */
+    public UploadSession completeUploadSession(String id, Long ownerId) throws IOException {
+        findUploadSession(id, ownerId).orElseThrow();
+        Lock lock = sessionLock(id);
+        lock.lock();
+        try {
+            UploadSession session = findUploadSession(id, ownerId).orElseThrow();
+            if (session.isComplete()) {
+                return session;
+            }
+            if (session.getReceivedBytes() != session.getSizeBytes()) {
+                throw new IllegalStateException("Upload incomplete: " + session.getReceivedBytes()
+                    + " of " + session.getSizeBytes() + " bytes received");
+            }
+
+            Path part = partPath(session.getId());
+            if (session.getSha256() != null && !session.getSha256().equals(sha256Hex(part))) {
+                // Start over rather than keep bytes known to be wrong
+                Files.deleteIfExists(part);
+                session.setReceivedBytes(0);
+                uploadSessionRepository.save(session);
+                throw new IllegalArgumentException("File checksum mismatch; upload it again");
+            }
+
+            Path staged = stagingFile();
+            try {
+                Scan scan;
+                try (InputStream in = Files.newInputStream(part)) {
+                    scan = ingest(in, staged);
+                }
+                String imageUrl = retain(scan, target -> Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE));
+                Files.deleteIfExists(part);
+                try {
+                    session.setImageUrl(imageUrl);
+                    session.setExpiresAt(expiry());
+                    return uploadSessionRepository.save(session);
+                } catch (RuntimeException e) {
+                    release(scan.hash());
+                    throw e;
+                }
+            } finally {
+                Files.deleteIfExists(staged);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Abandons a session, giving back its blob reference if it had finished. */
+    public boolean cancelUploadSession(String id, Long ownerId) {
+        if (uploadSessionRepository.findById(id).filter(candidate -> candidate.getOwnerId().equals(ownerId)).isEmpty()) {
+            return false;
+        }
+        Lock lock = sessionLock(id);
+        lock.lock();
+        try {
+            // Read again under the lock, in case the upload finished in the meantime
+            Optional<UploadSession> session = uploadSessionRepository.findById(id);
+            if (session.isEmpty()) {
+                return false;
+            }
+            Integer deleted = transaction.execute(status -> uploadSessionRepository.deleteOwned(id, ownerId));
+            if (deleted != null && deleted > 0) {
+                discard(session.get());
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the blob references of finished sessions over to a listing, in the order given,
+     * and ends the sessions. Either every id is claimed or none is.
+     */
+    public List<String> claimUploads(List<String> ids, Long ownerId) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        checkUploadCount(ids.size());
+        LocalDateTime now = LocalDateTime.now();
+        return transaction.execute(status -> {
+            List<String> imageUrls = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                String imageUrl = uploadSessionRepository.findById(id)
+                    .filter(session -> session.getOwnerId().equals(ownerId))
+                    .map(UploadSession::getImageUrl)
+                    .orElse(null);
+                if (imageUrl == null || uploadSessionRepository.deleteClaimable(id, ownerId, now) == 0) {
+                    throw new IllegalArgumentException("Upload " + id + " is not a finished upload of yours");
+                }
+                imageUrls.add(imageUrl);
+            }
+            ids.forEach(sessionLocks::remove);
+            return imageUrls;
+        });
+    }
+
+    /** Rejects a listing that names more finished uploads than one listing may claim. */
+    public void checkUploadCount(int count) {
+        if (count > maxUploadsPerListing) {
+            throw new IllegalArgumentException("At most " + maxUploadsPerListing + " uploads per listing");
+        }
+    }
+
+    /** Discards sessions idle past their expiry, with their part files and unclaimed blobs. */
+    @Scheduled(fixedDelayString = "${linka.images.upload.session-sweep-interval-ms:600000}")
+    public void expireUploadSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (UploadSession session : uploadSessionRepository.findByExpiresAtBefore(now)) {
+            Lock lock = sessionLock(session.getId());
+            if (!lock.tryLock()) {
+                continue; // a chunk is arriving right now; the next sweep will see
+            }
+            try {
+                Integer deleted = transaction.execute(status -> uploadSessionRepository.deleteExpired(session.getId(), now));
+                if (deleted != null && deleted > 0) {
+                    discard(session);
+                    expired++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired {} abandoned upload sessions", expired);
+        }
+    }
+
+    /** Cleans up after a session whose row is gone. */
+    private void discard(UploadSession session) {
+        // Threads still holding the old lock find the row gone and stop
+        sessionLocks.remove(session.getId());
+        if (session.isComplete()) {
+            release(blobHash(session.getImageUrl()));
+        }
+        try {
+            Files.deleteIfExists(partPath(session.getId()));
         } catch (IOException e) {
-            System.err.println("Failed to delete listing images directory: " + listingId);
+            logger.warn("Failed to delete upload part {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private LocalDateTime expiry() {
+        return LocalDateTime.now().plus(Duration.ofHours(sessionTtlHours));
+    }
+
+    private Path partPath(String sessionId) {
+        return Paths.get(uploadDir, ".incoming", "sessions", sessionId + ".part");
+    }
+
+    // Next to the multipart staging directory (see WebConfig), so storing the copy is a rename
+    private Path stagingFile() throws IOException {
+        Path dir = Paths.get(uploadDir, ".incoming");
+        Files.createDirectories(dir);
+        return Files.createTempFile(dir, "upload-", ".tmp");
+    }
+
+    private static String sha256Hex(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Digest for an {@code Upload-Checksum} value of the form {@code sha256 <base64>}. */
+    private static MessageDigest chunkDigest(String checksum) {
+        String[] parts = checksum.trim().split("\\s+");
+        if (parts.length != 2 || !parts[0].equalsIgnoreCase("sha256")) {
+            throw new IllegalArgumentException("Checksum must be 'sha256 <base64 digest>'");
+        }
+        return sha256();
+    }
+
+    private static boolean checksumMatches(MessageDigest digest, String checksum) {
+        try {
+            byte[] expected = Base64.getDecoder().decode(checksum.trim().split("\\s+")[1]);
+            return MessageDigest.isEqual(expected, digest.digest());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** The content hash behind a blob URL or one of its variants, or null for any other URL. */
+    public static String blobHash(String imageUrl) {
+        Matcher matcher = BLOB_URL.matcher(imageUrl);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Runs {@code action} under the lock of the blob behind {@code imageUrl}, provided the blob
+     * is still stored, so files derived from it are not written after {@link #release} has
+     * swept its hash. URLs that are not blobs need no lock and always run.
+     *
+     * @throws IOException when the blob has been released in the meantime
+     */
+    public void whileStored(String imageUrl, IOAction action) throws IOException {
+        String hash = blobHash(imageUrl);
+        if (hash == null) {
+            action.run();
+            return;
+        }
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (!imageBlobRepository.existsById(hash)) {
+                throw new IOException("Image is no longer stored");
+            }
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public interface IOAction {
+        void run() throws IOException;
+    }
+
+    /** Writes the blob file for a new hash; called under the hash's lock. */
+    private interface BlobWriter {
+        void writeTo(Path target) throws IOException;
+    }
+
+    private String retain(Scan scan, BlobWriter writer) throws IOException {
+        String hash = scan.hash();
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            return transaction.execute(status -> {
+                ImageBlob blob = imageBlobRepository.findById(hash).orElse(null);
+                if (blob != null) {
+                    imageBlobRepository.retain(hash);
+                } else {
+                    blob = imageBlobRepository.save(new ImageBlob(hash, scan.extension(), scan.size()));
+                }
+                // Also restores a file that has gone missing from under its row
+                Path target = blobPath(hash, blob.getExtension());
+                if (!Files.exists(target)) {
+                    try {
+                        Files.createDirectories(target.getParent());
+                        writer.writeTo(target);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return blobUrl(hash, blob.getExtension());
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(String hash) {
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Boolean unreferenced = transaction.execute(status ->
+                imageBlobRepository.release(hash) > 0 && imageBlobRepository.deleteIfUnreferenced(hash) > 0);
+            if (!Boolean.TRUE.equals(unreferenced)) {
+                return;
+            }
+            // The blob and every variant generated from it share the hash prefix
+            Path dir = blobPath(hash, "").getParent();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, hash + "*")) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to delete image blob {}: {}", hash, e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path blobPath(String hash, String extension) {
+        // Two-character fan-out keeps directories small
+        return Paths.get(uploadDir, "blobs", hash.substring(0, 2), hash + "." + extension);
+    }
+
+    private static String blobUrl(String hash, String extension) {
+        return BLOB_URL_PREFIX + hash.substring(0, 2) + "/" + hash + "." + extension;
+    }
+
+    private Lock sessionLock(String sessionId) {
+        return sessionLocks.computeIfAbsent(sessionId, key -> new ReentrantLock());
+    }
+
+    private Lock lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), locks.length)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -129,9 +782,20 @@ public class ImageUploadService {
         String extension = getFileExtension(originalFilename);
         String filename = UUID.randomUUID().toString() + "." + extension;
         
-        // Save file
+        // Save file, without metadata when the bytes are a format we can clean
         Path targetPath = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream in = new BufferedInputStream(file.getInputStream());
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(targetPath))) {
+            in.mark(SNIFF_BYTES);
+            byte[] head = in.readNBytes(SNIFF_BYTES);
+            in.reset();
+            String sniffed = sniffExtension(head, head.length);
+            if (sniffed != null) {
+                ImageMetadata.strip(in, out, sniffed);
+            } else {
+                in.transferTo(out);
+            }
+        }
         
         // Return URL
         return "/api/uploads/" + subDirectory + "/" + filename;
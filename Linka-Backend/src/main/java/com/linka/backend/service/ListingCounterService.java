@@ -0,0 +1,198 @@
+package com.linka.backend.service;
+
+import com.linka.backend.event.ListingCountersRetiredEvent;
+import com.linka.backend.event.ListingEngagementEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind engagement counters for listings.
+ *
+ * Views, favorites and contacts are absorbed in memory by striped {@link LongAdder}s and
+ * periodically written as relative {@code UPDATE listings SET view_count = view_count + ?}
+ * statements in a single JDBC batch. This keeps hot listings from rewriting the whole row
+ * (and bumping {@code updated_at}) on every hit, and concurrent hits never lose updates.
+ * Listings with no hits for {@code linka.counters.retire-after-idle-ms} are dropped from
+ * memory after a flush, so the map only holds recently active listings.
+ */
+@Service
+public class ListingCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingCounterService.class);
+
+    private static final String FLUSH_SQL =
+        "UPDATE listings SET view_count = view_count + ?, favorite_count = favorite_count + ?, " +
+        "contact_count = contact_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${linka.counters.retire-after-idle-ms:600000}")
+    private long retireAfterIdleMs;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    // Dropped at the previous flush. A hit that looked its counters up just before they were
+    // dropped still lands in them, so they are flushed once more before being let go.
+    private List<Map.Entry<Long, Counters>> retired = List.of();
+
+    public void recordView(Long listingId) {
+        countersFor(listingId).views.increment();
+        eventPublisher.publishEvent(new ListingEngagementEvent(listingId, ListingEngagementEvent.Type.VIEW));
+    }
+
+    public void recordFavorite(Long listingId) {
+        countersFor(listingId).favorites.increment();
+        eventPublisher.publishEvent(new ListingEngagementEvent(listingId, ListingEngagementEvent.Type.FAVORITE));
+    }
+
+    public void recordContact(Long listingId) {
+        countersFor(listingId).contacts.increment();
+        eventPublisher.publishEvent(new ListingEngagementEvent(listingId, ListingEngagementEvent.Type.CONTACT));
+    }
+
+    public long pendingViews(Long listingId) {
+        Counters c = counters.get(listingId);
+        return c == null ? 0 : c.views.sum() - c.flushedViews;
+    }
+
+    public long pendingFavorites(Long listingId) {
+        Counters c = counters.get(listingId);
+        return c == null ? 0 : c.favorites.sum() - c.flushedFavorites;
+    }
+
+    public long pendingContacts(Long listingId) {
+        Counters c = counters.get(listingId);
+        return c == null ? 0 : c.contacts.sum() - c.flushedContacts;
+    }
+
+    /** Views, favorites and contacts recorded by this instance since startup. */
+    public long[] recordedTotals(Long listingId) {
+        Counters c = counters.get(listingId);
+        return c == null ? new long[3] : new long[] {c.views.sum(), c.favorites.sum(), c.contacts.sum()};
+    }
+
+    /** The part of {@link #recordedTotals} that has already been written to the database. */
+    public long[] flushedTotals(Long listingId) {
+        Counters c = counters.get(listingId);
+        return c == null ? new long[3] : new long[] {c.flushedViews, c.flushedFavorites, c.flushedContacts};
+    }
+
+    @Scheduled(fixedDelayString = "${linka.counters.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Failed to flush listing counters, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        scheduledFlush();
+    }
+
+    /**
+     * Writes all pending deltas in one batch. Deltas are only marked as flushed once the
+     * batch has succeeded, so a failed flush is simply retried on the next run.
+     */
+    public synchronized int flush() {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<Long, Counters>> pending = new ArrayList<>();
+        List<long[]> deltas = new ArrayList<>();
+
+        List<Map.Entry<Long, Counters>> candidates = new ArrayList<>(retired);
+        candidates.addAll(counters.entrySet());
+        for (Map.Entry<Long, Counters> entry : candidates) {
+            Counters c = entry.getValue();
+            long views = c.views.sum();
+            long favorites = c.favorites.sum();
+            long contacts = c.contacts.sum();
+            if (views != c.flushedViews || favorites != c.flushedFavorites || contacts != c.flushedContacts) {
+                pending.add(entry);
+                deltas.add(new long[] {views, favorites, contacts});
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            List<Object[]> batchArgs = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                Counters c = pending.get(i).getValue();
+                long[] totals = deltas.get(i);
+                batchArgs.add(new Object[] {
+                    totals[0] - c.flushedViews,
+                    totals[1] - c.flushedFavorites,
+                    totals[2] - c.flushedContacts,
+                    pending.get(i).getKey()
+                });
+            }
+
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs);
+
+            for (int i = 0; i < pending.size(); i++) {
+                Counters c = pending.get(i).getValue();
+                long[] totals = deltas.get(i);
+                c.flushedViews = totals[0];
+                c.flushedFavorites = totals[1];
+                c.flushedContacts = totals[2];
+                c.lastActiveMillis = now;
+            }
+            logger.debug("Flushed engagement counters for {} listings", pending.size());
+        }
+
+        retire(now);
+        return pending.size();
+    }
+
+    /** Drops fully flushed counters that have seen no hits for the idle period. */
+    private void retire(long now) {
+        List<Map.Entry<Long, Counters>> dropped = new ArrayList<>();
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            if (now - c.lastActiveMillis >= retireAfterIdleMs && counters.remove(entry.getKey(), c)) {
+                dropped.add(Map.entry(entry.getKey(), c));
+            }
+        }
+        retired = dropped;
+        if (!dropped.isEmpty()) {
+            eventPublisher.publishEvent(new ListingCountersRetiredEvent(dropped.stream().map(Map.Entry::getKey).toList()));
+            logger.debug("Retired engagement counters of {} idle listings", dropped.size());
+        }
+    }
+
+    private Counters countersFor(Long listingId) {
+        return counters.computeIfAbsent(listingId, id -> new Counters());
+    }
+
+    /**
+     * Running totals recorded by this instance since startup. The flushed totals are only
+     * written by the (synchronized) flusher, so pending = recorded - flushed is always exact
+     * without ever resetting the adders.
+     */
+    private static final class Counters {
+        final LongAdder views = new LongAdder();
+        final LongAdder favorites = new LongAdder();
+        final LongAdder contacts = new LongAdder();
+        volatile long flushedViews;
+        volatile long flushedFavorites;
+        volatile long flushedContacts;
+        // Last flush that wrote a delta (or creation); only read and written by the flusher
+        long lastActiveMillis = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,217 @@
+package com.linka.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.linka.backend.cache.SharedCacheTier;
+import com.linka.backend.dto.ListingDetail;
+import com.linka.backend.entity.Listing;
+import com.linka.backend.event.ListingChangedEvent;
+import com.linka.backend.event.ListingCountersRetiredEvent;
+import com.linka.backend.repository.ListingRepository;
+import com.linka.backend.util.HttpCaching;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Local cache of serialized {@link ListingDetail} JSON keyed by listing id.
+ *
+ * Caffeine's W-TinyLFU admission keeps the hot few hundred listings resident, bounded by the
+ * total size of the cached JSON rather than an entry count. Entries are dropped after commit
+ * whenever the listing is updated, changes status or images, or is deleted.
+ *
+ * Engagement counters are not part of the cached bytes. Each entry remembers the persisted
+ * counts minus what this instance had already flushed, and every response adds this
+ * instance's recorded totals on top, so view counting stays live while the detail itself
+ * comes from memory. Hits recorded by other replicas show up when the entry expires.
+ *
+ * On a local miss the JSON is taken from the {@link SharedCacheTier} when another instance
+ * has already rendered it, so only the three counters are read from the database.
+ * Invalidations are broadcast so every instance drops its local copy.
+ *
+ * Each entry carries a weak ETag over its JSON and the listing's {@code updatedAt}, so a
+ * conditional GET for a hot listing is answered without touching the database.
+ */
+@Service
+public class ListingDetailCache {
+
+    public static final String CACHE_NAME = "listingDetail";
+
+    // Rough per-entry overhead of the cache node, key and holder
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ListingCounterService listingCounterService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SharedCacheTier sharedTier;
+
+    @Value("${linka.cache.detail.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${linka.cache.detail.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${linka.cache.shared.ttl-seconds:600}")
+    private long sharedTtlSeconds;
+
+    private Cache<Long, CachedDetail> cache;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Long id, CachedDetail detail) -> detail.json.length + ENTRY_OVERHEAD_BYTES)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        sharedTier.onInvalidation((cacheName, key) -> {
+            if (CACHE_NAME.equals(cacheName)) {
+                cache.invalidate(Long.valueOf(key));
+            }
+        });
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Counts a view and returns the cached detail, or empty if the listing does not exist.
+     * Use {@link #render} for the JSON with current engagement counts.
+     */
+    public Optional<CachedDetail> view(Long id) {
+        CachedDetail detail = cache.get(id, this::load);
+        if (detail == null) {
+            return Optional.empty();
+        }
+        listingCounterService.recordView(id);
+        return Optional.of(detail);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        sharedTier.evict(CACHE_NAME, id.toString());
+        sharedTier.publishInvalidation(CACHE_NAME, id.toString());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        // A new id cannot have been cached yet; skipping it keeps bulk imports off the broadcast channel
+        if (event.isCreated()) {
+            return;
+        }
+        invalidate(event.getListingId());
+    }
+
+    /** Cached base counts are relative to the dropped totals; this instance's copies only. */
+    @EventListener
+    public void onCountersRetired(ListingCountersRetiredEvent event) {
+        cache.invalidateAll(event.getListingIds());
+    }
+
+    private CachedDetail load(Long id) {
+        byte[] shared = sharedTier.get(CACHE_NAME, id.toString());
+        if (shared != null) {
+            long[] flushed = listingCounterService.flushedTotals(id);
+            List<Object[]> counts = listingRepository.findCountsById(id);
+            if (counts.isEmpty()) {
+                return null;
+            }
+            Object[] row = counts.get(0);
+            long[] base = {
+                ((Number) row[0]).longValue() - flushed[0],
+                ((Number) row[1]).longValue() - flushed[1],
+                ((Number) row[2]).longValue() - flushed[2]
+            };
+            return new CachedDetail(shared, base, (LocalDateTime) row[3]);
+        }
+
+        CachedDetail detail = readOnlyTransaction.execute(status -> {
+            // Read before the row so a concurrent flush can only make counts briefly high, never low
+            long[] flushed = listingCounterService.flushedTotals(id);
+            Optional<Listing> listing = listingRepository.findById(id);
+            if (listing.isEmpty()) {
+                return null;
+            }
+            Listing l = listing.get();
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(new ListingDetail(l));
+                long[] base = {
+                    l.getViewCount() - flushed[0],
+                    l.getFavoriteCount() - flushed[1],
+                    l.getContactCount() - flushed[2]
+                };
+                return new CachedDetail(json, base, l.getUpdatedAt());
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (detail != null) {
+            sharedTier.put(CACHE_NAME, id.toString(), detail.json, Duration.ofSeconds(sharedTtlSeconds));
+        }
+        return detail;
+    }
+
+    /** Splices the live counters into the cached object just before its closing brace. */
+    public byte[] render(Long id, CachedDetail detail) {
+        long[] recorded = listingCounterService.recordedTotals(id);
+        String counts = ",\"viewCount\":" + (detail.baseCounts[0] + recorded[0])
+            + ",\"favoriteCount\":" + (detail.baseCounts[1] + recorded[1])
+            + ",\"contactCount\":" + (detail.baseCounts[2] + recorded[2]) + "}";
+        byte[] tail = counts.getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(detail.json.length + tail.length);
+        out.write(detail.json, 0, detail.json.length - 1);
+        out.write(tail, 0, tail.length);
+        return out.toByteArray();
+    }
+
+    public static final class CachedDetail {
+        final byte[] json;
+        // Persisted counts minus this instance's flushed totals at load time
+        final long[] baseCounts;
+        // Weak, since the counts spliced into each response are not covered
+        final String eTag;
+        final long lastModified;
+
+        CachedDetail(byte[] json, long[] baseCounts, LocalDateTime updatedAt) {
+            this.json = json;
+            this.baseCounts = baseCounts;
+            this.eTag = HttpCaching.weakETag(json);
+            this.lastModified = HttpCaching.toEpochMillis(updatedAt);
+        }
+
+        public String getETag() { return eTag; }
+        public long getLastModified() { return lastModified; }
+    }
+}
@@ -0,0 +1,155 @@
+package com.linka.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linka.backend.entity.Listing;
+import com.linka.backend.repository.ListingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Full listing dumps for partners and the data team. Rows are read through a forward-only
+ * cursor and written to the response as they arrive, so memory use stays flat however many
+ * listings are exported.
+ */
+@Service
+public class ListingExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingExportService.class);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+    }
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${linka.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Validates a fields parameter, so a bad one is rejected before the response starts. */
+    public List<String> columns(String fields) {
+        return listingRepository.resolveFields(fields);
+    }
+
+    /**
+     * Writes every listing matching the filters (null means unfiltered) to the stream in id
+     * order. The cursor stays open in one read-only transaction until the last row is written.
+     */
+    public void write(Format format, String fields, Listing.Status status, Long categoryId, Long sellerId,
+                      LocalDateTime updatedSince, OutputStream out) throws IOException {
+        List<String> columns = columns(fields);
+        long started = System.currentTimeMillis();
+        try {
+            long rows = readOnlyTransaction.execute(tx -> {
+                try (Stream<Map<String, Object>> stream = listingRepository.streamFields(
+                        fields, status, categoryId, sellerId, updatedSince, fetchSize)) {
+                    return format == Format.CSV
+                        ? writeCsv(columns, stream.iterator(), out)
+                        : writeNdjson(stream.iterator(), out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Exported {} listings as {} in {} ms", rows, format, System.currentTimeMillis() - started);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction has already closed the cursor
+            throw e.getCause();
+        }
+    }
+
+    private long writeNdjson(Iterator<Map<String, Object>> rows, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_BYTES);
+        long count = 0;
+        while (rows.hasNext()) {
+            buffered.write(objectMapper.writeValueAsBytes(rows.next()));
+            buffered.write('\n');
+            count++;
+        }
+        buffered.flush();
+        return count;
+    }
+
+    private long writeCsv(List<String> columns, Iterator<Map<String, Object>> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+        writer.write(String.join(",", columns));
+        writer.write("\r\n");
+        long count = 0;
+        while (rows.hasNext()) {
+            Map<String, Object> row = rows.next();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(writer, row.get(columns.get(i)));
+            }
+            writer.write("\r\n");
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    // RFC 4180: quote values containing a delimiter, quote or line break, doubling inner quotes
+    private static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
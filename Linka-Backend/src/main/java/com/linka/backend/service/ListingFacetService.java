@@ -0,0 +1,256 @@
+package com.linka.backend.service;
+
+import com.linka.backend.dto.ListingSnapshot;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index over ACTIVE listings: one compressed bitmap of listing ids per facet
+ * value, so the counts for any result set are bitmap intersections instead of GROUP BY queries.
+ *
+ * Listings enter the index when they become ACTIVE and leave it on any other status or on
+ * delete, as {@link ListingReadModels} passes on committed changes; its periodic rebuild repairs
+ * anything changed outside this instance. Bitmaps hold 32-bit ids, which is ample for listing ids.
+ */
+@Service
+public class ListingFacetService implements ListingReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingFacetService.class);
+
+    public static final String CATEGORY = "category";
+    public static final String CONDITION = "condition";
+    public static final String LISTING_TYPE = "listingType";
+    public static final String CITY = "city";
+    public static final String DISTRICT = "district";
+    public static final String NEGOTIABLE = "negotiable";
+    public static final String PRICE = "price";
+
+    public static final List<String> FACETS = List.of(CATEGORY, CONDITION, LISTING_TYPE, CITY, DISTRICT, NEGOTIABLE, PRICE);
+
+    // Upper bounds of the price buckets; the last bucket is open-ended
+    @Value("${linka.facets.price-buckets:100000,500000,1000000,5000000,20000000}")
+    private BigDecimal[] priceBuckets;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+
+    @Override
+    public void apply(Long listingId, ListingSnapshot snapshot) {
+        Change change = toChange(listingId, snapshot);
+        lock.writeLock().lock();
+        try {
+            index.apply(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Build newBuild() {
+        Index fresh = new Index();
+        return new Build() {
+            @Override
+            public void apply(Long listingId, ListingSnapshot snapshot) {
+                fresh.apply(toChange(listingId, snapshot));
+            }
+
+            @Override
+            public void install() {
+                fresh.optimize();
+                lock.writeLock().lock();
+                try {
+                    index = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                logger.debug("Built facet index with {} active listings", fresh.active.getCardinality());
+            }
+        };
+    }
+
+    /**
+     * Counts per facet value over {@code candidates} (all active listings when {@code null}),
+     * narrowed by the selected values. Selections are disjunctive: each facet's counts apply
+     * the selections of every other facet but not its own, so a sidebar can still show the
+     * alternatives to what is selected. Multiple values for one facet are OR-ed.
+     */
+    public FacetResult count(RoaringBitmap candidates, Map<String, List<String>> selected) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap base = candidates != null ? RoaringBitmap.and(candidates, index.active) : index.active;
+
+            Map<String, RoaringBitmap> selections = new HashMap<>();
+            for (Map.Entry<String, List<String>> entry : selected.entrySet()) {
+                Map<String, RoaringBitmap> values = index.facets.get(entry.getKey());
+                if (values == null || entry.getValue().isEmpty()) {
+                    continue;
+                }
+                RoaringBitmap union = new RoaringBitmap();
+                for (String value : entry.getValue()) {
+                    RoaringBitmap bitmap = values.get(value);
+                    if (bitmap != null) {
+                        union.or(bitmap);
+                    }
+                }
+                selections.put(entry.getKey(), union);
+            }
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                RoaringBitmap scope = base;
+                for (Map.Entry<String, RoaringBitmap> selection : selections.entrySet()) {
+                    if (!selection.getKey().equals(facet)) {
+                        scope = RoaringBitmap.and(scope, selection.getValue());
+                    }
+                }
+                counts.put(facet, countValues(facet, scope));
+            }
+
+            RoaringBitmap matching = base;
+            for (RoaringBitmap selection : selections.values()) {
+                matching = RoaringBitmap.and(matching, selection);
+            }
+            return new FacetResult(counts, matching.getCardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Integer> countValues(String facet, RoaringBitmap scope) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<String, RoaringBitmap> value : index.facets.get(facet).entrySet()) {
+            int count = RoaringBitmap.andCardinality(scope, value.getValue());
+            if (count > 0) {
+                entries.add(Map.entry(value.getKey(), count));
+            }
+        }
+        // Price buckets keep their natural order, everything else is most common first
+        if (!PRICE.equals(facet)) {
+            entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private Change toChange(Long listingId, ListingSnapshot listing) {
+        if (listing == null || !listing.isActive()) {
+            return new Change(listingId, null);
+        }
+        String[] values = new String[FACETS.size()];
+        values[FACETS.indexOf(CATEGORY)] = listing.categoryId() != null ? listing.categoryId().toString() : null;
+        values[FACETS.indexOf(CONDITION)] = listing.conditionType() != null ? listing.conditionType().name() : null;
+        values[FACETS.indexOf(LISTING_TYPE)] = listing.listingType() != null ? listing.listingType().name() : null;
+        values[FACETS.indexOf(CITY)] = trimToNull(listing.city());
+        values[FACETS.indexOf(DISTRICT)] = trimToNull(listing.district());
+        values[FACETS.indexOf(NEGOTIABLE)] = Boolean.toString(listing.negotiable());
+        values[FACETS.indexOf(PRICE)] = priceBucket(listing.price());
+        return new Change(listingId, values);
+    }
+
+    private String priceBucket(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : priceBuckets) {
+            if (price.compareTo(upper) < 0) {
+                return lower.toPlainString() + "-" + upper.toPlainString();
+            }
+            lower = upper;
+        }
+        return lower.toPlainString() + "+";
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /** A listing's facet values in {@link #FACETS} order, or {@code null} when it is not active. */
+    private record Change(Long listingId, String[] values) {}
+
+    private static final class Index {
+        final RoaringBitmap active = new RoaringBitmap();
+        final Map<String, Map<String, RoaringBitmap>> facets = new HashMap<>();
+        // Current values per indexed listing, so an update can clear the old bits
+        final Map<Integer, String[]> valuesById = new HashMap<>();
+
+        Index() {
+            for (String facet : FACETS) {
+                // Sorted so price buckets come out in ascending order
+                facets.put(facet, PRICE.equals(facet) ? new TreeMap<>(Index::comparePriceBuckets) : new HashMap<>());
+            }
+        }
+
+        void apply(Change change) {
+            int id = Math.toIntExact(change.listingId());
+            String[] previous = valuesById.remove(id);
+            if (previous != null) {
+                active.remove(id);
+                for (int i = 0; i < previous.length; i++) {
+                    if (previous[i] != null) {
+                        Map<String, RoaringBitmap> values = facets.get(FACETS.get(i));
+                        RoaringBitmap bitmap = values.get(previous[i]);
+                        bitmap.remove(id);
+                        if (bitmap.isEmpty()) {
+                            values.remove(previous[i]);
+                        }
+                    }
+                }
+            }
+            if (change.values() != null) {
+                valuesById.put(id, change.values());
+                active.add(id);
+                for (int i = 0; i < change.values().length; i++) {
+                    if (change.values()[i] != null) {
+                        facets.get(FACETS.get(i)).computeIfAbsent(change.values()[i], v -> new RoaringBitmap()).add(id);
+                    }
+                }
+            }
+        }
+
+        void optimize() {
+            active.runOptimize();
+            for (Map<String, RoaringBitmap> values : facets.values()) {
+                values.values().forEach(RoaringBitmap::runOptimize);
+            }
+        }
+
+        private static int comparePriceBuckets(String a, String b) {
+            return new BigDecimal(lowerBound(a)).compareTo(new BigDecimal(lowerBound(b)));
+        }
+
+        private static String lowerBound(String bucket) {
+            int end = bucket.indexOf('-');
+            return bucket.substring(0, end >= 0 ? end : bucket.length() - 1);
+        }
+    }
+
+    public static class FacetResult {
+        private final Map<String, Map<String, Integer>> facets;
+        private final int total;
+
+        public FacetResult(Map<String, Map<String, Integer>> facets, int total) {
+            this.facets = facets;
+            this.total = total;
+        }
+
+        public Map<String, Map<String, Integer>> getFacets() { return facets; }
+        public int getTotal() { return total; }
+    }
+}
@@ -0,0 +1,132 @@
+package com.linka.backend.service;
+
+import com.linka.backend.dto.ListingSnapshot;
+import com.linka.backend.util.GeoHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory spatial index of ACTIVE listings with coordinates, keyed by geohash.
+ *
+ * A radius query covers the search circle with a bounded number of geohash cells, range-scans
+ * each cell prefix in the sorted key space and only computes exact distances for those
+ * candidates. Kept current and periodically rebuilt by {@link ListingReadModels}.
+ */
+@Service
+public class ListingGeoService implements ListingReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingGeoService.class);
+
+    public static final double MAX_RADIUS_KM = 50;
+
+    private static final int KEY_PRECISION = 9;
+    private static final int MAX_CELLS = 32;
+
+    private final Object lock = new Object();
+    private volatile Index index = new Index();
+
+    @Override
+    public void apply(Long listingId, ListingSnapshot snapshot) {
+        Change change = toChange(listingId, snapshot);
+        synchronized (lock) {
+            index.apply(change);
+        }
+    }
+
+    @Override
+    public Build newBuild() {
+        Index fresh = new Index();
+        return new Build() {
+            @Override
+            public void apply(Long listingId, ListingSnapshot snapshot) {
+                fresh.apply(toChange(listingId, snapshot));
+            }
+
+            @Override
+            public void install() {
+                synchronized (lock) {
+                    index = fresh;
+                }
+                logger.debug("Built geo index with {} listings", fresh.keysById.size());
+            }
+        };
+    }
+
+    /**
+     * Active listings within {@code radiusKm} of the point, nearest first, optionally limited
+     * to one category and a price range.
+     */
+    public List<Hit> nearby(double lat, double lng, double radiusKm, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException("Invalid coordinates");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + (int) MAX_RADIUS_KM + " km");
+        }
+        ConcurrentSkipListMap<String, Point> points = index.points;
+        List<Hit> hits = new ArrayList<>();
+        for (String cell : GeoHash.coveringCells(lat, lng, radiusKm, MAX_CELLS)) {
+            // '~' sorts after every base32 character, so this is exactly the keys under the cell
+            for (Point point : points.subMap(cell, cell + "~").values()) {
+                if (categoryId != null && !categoryId.equals(point.categoryId())) {
+                    continue;
+                }
+                if (minPrice != null && (point.price() == null || point.price().compareTo(minPrice) < 0)) {
+                    continue;
+                }
+                if (maxPrice != null && (point.price() == null || point.price().compareTo(maxPrice) > 0)) {
+                    continue;
+                }
+                double distance = GeoHash.distanceKm(lat, lng, point.lat(), point.lng());
+                if (distance <= radiusKm) {
+                    hits.add(new Hit(point.listingId(), distance));
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparing(Hit::listingId));
+        return hits;
+    }
+
+    private Change toChange(Long listingId, ListingSnapshot listing) {
+        if (listing == null || !listing.isActive() || listing.latitude() == null || listing.longitude() == null) {
+            return new Change(listingId, null);
+        }
+        return new Change(listingId, new Point(listingId, listing.latitude().doubleValue(),
+            listing.longitude().doubleValue(), listing.categoryId(), listing.price()));
+    }
+
+    public record Hit(Long listingId, double distanceKm) {}
+
+    private record Point(Long listingId, double lat, double lng, Long categoryId, BigDecimal price) {}
+
+    /** A listing's new position, or {@code null} when it should not be in the index. */
+    private record Change(Long listingId, Point point) {}
+
+    private static final class Index {
+        // Key is "<geohash>:<id>" so listings sharing a cell stay distinct and prefix scans work
+        final ConcurrentSkipListMap<String, Point> points = new ConcurrentSkipListMap<>();
+        final Map<Long, String> keysById = new ConcurrentHashMap<>();
+
+        void apply(Change change) {
+            String previous = keysById.remove(change.listingId());
+            if (previous != null) {
+                points.remove(previous);
+            }
+            if (change.point() != null) {
+                Point point = change.point();
+                String key = GeoHash.encode(point.lat(), point.lng(), KEY_PRECISION) + ":" + point.listingId();
+                points.put(key, point);
+                keysById.put(point.listingId(), key);
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.linka.backend.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.linka.backend.dto.ListingImportResult;
+import com.linka.backend.dto.ListingImportRow;
+import com.linka.backend.entity.Category;
+import com.linka.backend.entity.Listing;
+import com.linka.backend.entity.ListingAttribute;
+import com.linka.backend.entity.User;
+import com.linka.backend.repository.CategoryRepository;
+import com.linka.backend.repository.ListingRepository;
+import com.linka.backend.util.CsvReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk listing import for merchant onboarding. Rows are validated one by one and reported
+ * individually; valid rows are inserted in chunks, each chunk one transaction whose listings,
+ * images and attributes go out as JDBC batches (pooled sequence ids, {@code hibernate.jdbc.batch_size}).
+ * A chunk the database refuses is retried in halves, so only the offending rows are rejected.
+ */
+@Service
+public class ListingImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingImportService.class);
+
+    // CSV columns named attr.<name> become attributes; imageUrls holds URLs separated by |
+    private static final String ATTRIBUTE_PREFIX = "attr.";
+
+    private static final Set<String> COLUMNS = Arrays.stream(ListingImportRow.class.getDeclaredFields())
+        .map(Field::getName)
+        .collect(Collectors.toUnmodifiableSet());
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${linka.import.max-rows:5000}")
+    private int maxRows;
+
+    @Value("${linka.import.chunk-size:500}")
+    private int chunkSize;
+
+    // Largest CSV accepted as a text/csv body; multipart uploads are also held to the servlet's per-file cap
+    @Value("${linka.import.max-csv-bytes:20971520}")
+    private int maxCsvBytes;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Parses a CSV upload of at most {@code linka.import.max-csv-bytes} into rows keyed by
+     * column name, ready for {@link #importRows}.
+     */
+    public List<Map<String, Object>> readCsv(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(maxCsvBytes + 1);
+        if (body.length > maxCsvBytes) {
+            throw new IllegalArgumentException("CSV is larger than " + maxCsvBytes + " bytes");
+        }
+        CsvReader csv = new CsvReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        for (String column : header) {
+            if (!COLUMNS.contains(column) && !column.startsWith(ATTRIBUTE_PREFIX)) {
+                throw new IllegalArgumentException("Unknown column '" + column + "'");
+            }
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (rows.size() == maxRows) {
+                throw new IllegalArgumentException("At most " + maxRows + " rows per import");
+            }
+            if (record.size() != header.size()) {
+                throw new IllegalArgumentException("Row " + (rows.size() + 1) + " has " + record.size() + " fields, expected " + header.size());
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            Map<String, String> attributes = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i);
+                String value = record.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                if (column.startsWith(ATTRIBUTE_PREFIX)) {
+                    attributes.put(column.substring(ATTRIBUTE_PREFIX.length()), value);
+                } else if (column.equals("imageUrls")) {
+                    row.put(column, Arrays.stream(value.split("\\|")).map(String::trim).filter(url -> !url.isEmpty()).toList());
+                } else {
+                    row.put(column, value);
+                }
+            }
+            row.put("attributes", attributes);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /** Imports the rows as DRAFT listings of the seller. Categories are resolved with one query. */
+    public ListingImportResult importRows(List<Map<String, Object>> rows, User seller) {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("No rows to import");
+        }
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("At most " + maxRows + " rows per import");
+        }
+        long started = System.currentTimeMillis();
+
+        Map<Long, Category> categoriesById = new HashMap<>();
+        Map<String, Category> categoriesBySlug = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoriesById.put(category.getId(), category);
+            categoriesBySlug.put(category.getSlug(), category);
+        }
+
+        ListingImportResult result = new ListingImportResult();
+        List<Listing> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkRows = new ArrayList<>(chunkSize);
+        for (int i = 0; i < rows.size(); i++) {
+            int rowNumber = i + 1;
+            try {
+                ListingImportRow row = convert(rows.get(i));
+                chunk.add(toListing(row, seller, categoriesById, categoriesBySlug));
+                chunkRows.add(rowNumber);
+            } catch (IllegalArgumentException e) {
+                result.rejected(rowNumber, e.getMessage());
+                continue;
+            }
+            if (chunk.size() == chunkSize) {
+                save(chunk, chunkRows, result);
+                chunk.clear();
+                chunkRows.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            save(chunk, chunkRows, result);
+        }
+
+        result.getErrors().sort(Comparator.comparingInt(ListingImportResult.RowError::getRow));
+        logger.info("Imported {} listings for seller {} ({} rejected) in {} ms",
+            result.getImported(), seller.getId(), result.getFailed(), System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private ListingImportRow convert(Map<String, Object> row) {
+        for (String key : row.keySet()) {
+            if (!COLUMNS.contains(key)) {
+                throw new IllegalArgumentException("Unknown field '" + key + "'");
+            }
+        }
+        try {
+            return objectMapper.convertValue(row, ListingImportRow.class);
+        } catch (IllegalArgumentException e) {
+            if (e.getCause() instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()) {
+                String message = "Invalid value for '" + mapping.getPath().get(0).getFieldName() + "'";
+                if (mapping instanceof InvalidFormatException format && format.getTargetType().isEnum()) {
+                    message += "; use one of " + Arrays.toString(format.getTargetType().getEnumConstants());
+                }
+                throw new IllegalArgumentException(message);
+            }
+            throw e;
+        }
+    }
+
+    private Listing toListing(ListingImportRow row, User seller, Map<Long, Category> categoriesById, Map<String, Category> categoriesBySlug) {
+        Category category;
+        if (row.getCategoryId() != null) {
+            category = categoriesById.get(row.getCategoryId());
+        } else if (row.getCategorySlug() != null) {
+            category = categoriesBySlug.get(row.getCategorySlug());
+        } else {
+            throw new IllegalArgumentException("Category is required");
+        }
+        if (category == null) {
+            throw new IllegalArgumentException("Invalid category");
+        }
+
+        Listing listing = new Listing(row.getTitle(), row.getDescription(), row.getPrice(), category, seller);
+        listing.setOriginalPrice(row.getOriginalPrice());
+        if (row.getListingType() != null) {
+            listing.setListingType(row.getListingType());
+        }
+        if (row.getConditionType() != null) {
+            listing.setConditionType(row.getConditionType());
+        }
+        listing.setLocation(row.getLocation());
+        listing.setCity(row.getCity());
+        listing.setDistrict(row.getDistrict());
+        if (row.getQuantityAvailable() != null) {
+            listing.setQuantityAvailable(row.getQuantityAvailable());
+        }
+        listing.setBrand(row.getBrand());
+        listing.setModel(row.getModel());
+        listing.setColor(row.getColor());
+        listing.setSize(row.getSize());
+        listing.setMaterial(row.getMaterial());
+        listing.setSku(row.getSku());
+        listing.setBarcode(row.getBarcode());
+        listing.setTags(row.getTags());
+        listing.setNegotiable(row.isNegotiable());
+        listing.setExpiresAt(row.getExpiresAt());
+        listing.setStatus(Listing.Status.DRAFT);
+
+        List<String> imageUrls = row.getImageUrls() != null ? row.getImageUrls() : List.of();
+        for (String url : imageUrls) {
+            if (!url.startsWith("https://") && !url.startsWith("http://")) {
+                throw new IllegalArgumentException("Image URL must be http(s): " + url);
+            }
+        }
+        if (!imageUrls.isEmpty()) {
+            listing.setImageUrls(new ArrayList<>(imageUrls));
+            listing.setMainImage(imageUrls.get(0));
+        }
+
+        List<String> violations = new ArrayList<>();
+        violations(validator.validate(listing), violations);
+        if (row.getAttributes() != null) {
+            int displayOrder = 0;
+            for (Map.Entry<String, String> entry : row.getAttributes().entrySet()) {
+                ListingAttribute attribute = new ListingAttribute(entry.getKey(), entry.getValue(), listing);
+                attribute.setDisplayOrder(displayOrder++);
+                violations(validator.validate(attribute), violations);
+                listing.getAttributes().add(attribute);
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", violations));
+        }
+        return listing;
+    }
+
+    private static <T> void violations(Set<ConstraintViolation<T>> found, List<String> messages) {
+        for (ConstraintViolation<T> violation : found) {
+            messages.add(violation.getMessage());
+        }
+    }
+
+    private void save(List<Listing> chunk, List<Integer> rowNumbers, ListingImportResult result) {
+        try {
+            transaction.executeWithoutResult(tx -> {
+                listingRepository.saveAll(chunk);
+                // Same item count bookkeeping as a single create, one update per category
+                Map<Long, Integer> perCategory = new HashMap<>();
+                for (Listing listing : chunk) {
+                    perCategory.merge(listing.getCategory().getId(), 1, Integer::sum);
+                }
+                perCategory.forEach((categoryId, count) -> {
+                    Category category = entityManager.find(Category.class, categoryId);
+                    category.setItemCount(category.getItemCount() + count);
+                });
+                entityManager.flush();
+                // The context may be the request's (open-in-view), so drop the chunk before the next one
+                entityManager.clear();
+            });
+            for (Listing listing : chunk) {
+                result.imported(listing.getId());
+            }
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (chunk.size() == 1) {
+                logger.warn("Import row {} failed: {}", rowNumbers.get(0), message);
+                result.rejected(rowNumbers.get(0), "Not saved: " + message);
+                return;
+            }
+            // Bisect so one bad row costs about log2(chunk) extra transactions, not its neighbours
+            logger.warn("Import chunk of {} listings failed, retrying in halves: {}", chunk.size(), message);
+            for (Listing listing : chunk) {
+                clearGeneratedIds(listing);
+            }
+            int half = chunk.size() / 2;
+            save(chunk.subList(0, half), rowNumbers.subList(0, half), result);
+            save(chunk.subList(half, chunk.size()), rowNumbers.subList(half, chunk.size()), result);
+        }
+    }
+
+    /** The rolled back insert left sequence ids behind; without them the retry inserts again. */
+    private static void clearGeneratedIds(Listing listing) {
+        listing.setId(null);
+        for (ListingAttribute attribute : listing.getAttributes()) {
+            attribute.setId(null);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.linka.backend.service;
+
+import com.linka.backend.dto.ListingSnapshot;
+import com.linka.backend.event.ListingEngagementEvent;
+import com.linka.backend.util.CategoryTopK;
+import com.linka.backend.util.SerialQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All-time popularity ranking of ACTIVE listings ({@code viewCount DESC, favoriteCount DESC}),
+ * kept as a bounded top-K overall and per category so {@code /popular} needs no database sort.
+ *
+ * Counts are bumped in memory from {@link ListingEngagementEvent}s as hits arrive, by one
+ * background thread so recording a view never waits on the ranking lock. Every
+ * {@link ListingReadModels} rebuild reconciles the rankings against the persisted counters;
+ * the first one runs on startup, so the ranking survives restarts.
+ */
+@Service
+public class ListingPopularService implements ListingReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingPopularService.class);
+
+    public static final int K = 50;
+
+    private static final int ENGAGEMENT_QUEUE_CAPACITY = 10_000;
+
+    @Autowired
+    private ListingCounterService listingCounterService;
+
+    private CategoryTopK ranking = new CategoryTopK(K);
+    private Map<Long, long[]> counts = new HashMap<>();
+
+    // Engagement is published on the request thread for every view; it is applied here instead
+    private final SerialQueue<ListingEngagementEvent> engagements =
+        new SerialQueue<>("popular-engagement", ENGAGEMENT_QUEUE_CAPACITY, this::applyEngagement);
+
+    /**
+     * Reloads the persisted counters (which include hits recorded by other replicas) plus this
+     * instance's not-yet-flushed deltas.
+     */
+    @Override
+    public Build newBuild() {
+        Map<Long, Row> active = new LinkedHashMap<>();
+        return new Build() {
+            @Override
+            public void apply(Long listingId, ListingSnapshot listing) {
+                if (listing == null || !listing.isActive()) {
+                    active.remove(listingId);
+                } else {
+                    active.put(listingId, new Row(listing.categoryId(), listing.viewCount(), listing.favoriteCount()));
+                }
+            }
+
+            @Override
+            public void install() {
+                synchronized (ListingPopularService.this) {
+                    CategoryTopK fresh = new CategoryTopK(K);
+                    Map<Long, long[]> freshCounts = new HashMap<>();
+                    for (Map.Entry<Long, Row> entry : active.entrySet()) {
+                        Long id = entry.getKey();
+                        Row row = entry.getValue();
+                        // Pending deltas are read under the lock so hits counted from here on are not lost
+                        long[] total = {
+                            row.views() + listingCounterService.pendingViews(id),
+                            row.favorites() + listingCounterService.pendingFavorites(id)
+                        };
+                        freshCounts.put(id, total);
+                        fresh.put(id, row.categoryId(), score(total));
+                    }
+                    ranking = fresh;
+                    counts = freshCounts;
+                }
+                logger.debug("Reconciled popular ranking over {} listings", active.size());
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        engagements.close();
+    }
+
+    @EventListener
+    public void onEngagement(ListingEngagementEvent event) {
+        engagements.offer(event);
+    }
+
+    private synchronized void applyEngagement(ListingEngagementEvent event) {
+        long[] total = counts.get(event.getListingId());
+        if (total == null) {
+            return;
+        }
+        switch (event.getType()) {
+            case VIEW -> total[0]++;
+            case FAVORITE -> total[1]++;
+            default -> {
+                return;
+            }
+        }
+        ranking.setScore(event.getListingId(), score(total));
+    }
+
+    @Override
+    public synchronized void apply(Long listingId, ListingSnapshot listing) {
+        if (listing == null || !listing.isActive()) {
+            counts.remove(listingId);
+            ranking.remove(listingId);
+            return;
+        }
+        long[] total = counts.computeIfAbsent(listingId,
+            id -> new long[] {listing.viewCount(), listing.favoriteCount()});
+        ranking.put(listingId, listing.categoryId(), score(total));
+    }
+
+    /** Ids of the most popular listings, overall or within one category. */
+    public synchronized List<Long> top(Long categoryId, int limit) {
+        return ranking.top(categoryId, limit);
+    }
+
+    /**
+     * Orders by views, then favorites: {@code f / (f + 1)} grows with favorites but stays
+     * below 1, so it only breaks ties between equal view counts.
+     */
+    private static double score(long[] total) {
+        return total[0] + total[1] / (total[1] + 1.0);
+    }
+
+    private record Row(Long categoryId, long views, long favorites) {}
+}
@@ -0,0 +1,29 @@
+package com.linka.backend.service;
+
+import com.linka.backend.dto.ListingSnapshot;
+
+/**
+ * An in-memory structure derived from listing rows. {@link ListingReadModels} keeps every
+ * model current from committed listing changes and periodically rebuilds them all from one
+ * pass over the listings table.
+ */
+public interface ListingReadModel {
+
+    /** Applies the new state of one listing; {@code snapshot} is null when it was deleted. */
+    void apply(Long listingId, ListingSnapshot snapshot);
+
+    /** Starts a replacement for the next rebuild pass, or returns null to keep the current state. */
+    Build newBuild();
+
+    interface Build {
+
+        /** Called with every listing the pass loads, then with each change made during the pass. */
+        void apply(Long listingId, ListingSnapshot snapshot);
+
+        /** Called once every listing is loaded and before changes are replayed; may be slow. */
+        default void loaded() {}
+
+        /** Swaps the build in. No change reaches the model while this runs. */
+        void install();
+    }
+}
@@ -0,0 +1,126 @@
+package com.linka.backend.service;
+
+import com.linka.backend.dto.ListingSnapshot;
+import com.linka.backend.event.ListingChangedEvent;
+import com.linka.backend.repository.ListingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives every {@link ListingReadModel}: each committed {@link ListingChangedEvent} is turned
+ * into one {@link ListingSnapshot} and applied to all models, and a rebuild pages the listings
+ * table once, as snapshots rather than entities, feeding every model's replacement at the same
+ * time. Rebuilds run on startup and periodically to pick up changes made by other instances.
+ */
+@Service
+public class ListingReadModels {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingReadModels.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private List<ListingReadModel> models;
+
+    // Orders changes against the start and the swap of a rebuild
+    private final Object lock = new Object();
+    // Changes that arrive while a rebuild is loading, replayed onto the new builds before the swap
+    private List<Change> changesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${linka.read-models.rebuild-interval-ms:300000}", initialDelayString = "${linka.read-models.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.warn("Listing read model rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        // Started before changes are recorded: anything committed until then is in the pass's reads
+        List<ListingReadModel.Build> builds = new ArrayList<>();
+        for (ListingReadModel model : models) {
+            ListingReadModel.Build build = model.newBuild();
+            if (build != null) {
+                builds.add(build);
+            }
+        }
+        if (builds.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+
+        int loaded = 0;
+        try {
+            Long afterId = 0L;
+            List<ListingSnapshot> batch;
+            while (!(batch = listingRepository.findSnapshotsAfterId(afterId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+                for (ListingSnapshot snapshot : batch) {
+                    for (ListingReadModel.Build build : builds) {
+                        build.apply(snapshot.id(), snapshot);
+                    }
+                }
+                loaded += batch.size();
+                afterId = batch.get(batch.size() - 1).id();
+            }
+            builds.forEach(ListingReadModel.Build::loaded);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changesDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            for (Change change : changesDuringRebuild) {
+                for (ListingReadModel.Build build : builds) {
+                    build.apply(change.listingId(), change.snapshot());
+                }
+            }
+            changesDuringRebuild = null;
+            builds.forEach(ListingReadModel.Build::install);
+        }
+        logger.info("Rebuilt {} listing read models from {} listings in {} ms", builds.size(), loaded, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        Long id = event.getListingId();
+        ListingSnapshot snapshot = event.isDeleted() ? null : ListingSnapshot.of(event.getListing());
+        synchronized (lock) {
+            for (ListingReadModel model : models) {
+                try {
+                    model.apply(id, snapshot);
+                } catch (RuntimeException e) {
+                    logger.warn("{} could not apply listing {}: {}", model.getClass().getSimpleName(), id, e.getMessage());
+                }
+            }
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(new Change(id, snapshot));
+            }
+        }
+    }
+
+    private record Change(Long listingId, ListingSnapshot snapshot) {}
+}
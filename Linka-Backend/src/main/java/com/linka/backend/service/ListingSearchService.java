@@ -0,0 +1,461 @@
+package com.linka.backend.service;
+
+import com.linka.backend.entity.Listing;
+import com.linka.backend.event.ListingChangedEvent;
+import com.linka.backend.repository.ListingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.FSDirectory;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Embedded Lucene full-text index over listing title, description, tags, brand and model.
+ *
+ * The index lives on local disk so a restart only has to catch up on listings changed while
+ * the instance was down. It is kept current from {@link ListingChangedEvent}s after commit,
+ * plus a periodic catch-up on {@code updated_at} that also picks up changes made by other
+ * replicas. Ranking is BM25 with field boosts, a small boost for featured/premium listings
+ * and edit-distance matching for typos.
+ */
+@Service
+public class ListingSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingSearchService.class);
+
+    private static final String ID = "id";
+    private static final String STATUS = "status";
+    private static final String FEATURED = "featured";
+    private static final String PREMIUM = "premium";
+    private static final String INDEXED_UP_TO = "indexedUpTo";
+    private static final int BATCH_SIZE = 500;
+
+    public static final int MAX_PAGE_SIZE = 100;
+    // Offset paging collects every hit up to the requested page; deeper pages use searchAfter
+    public static final int MAX_OFFSET_HITS = 1000;
+
+    private static final Map<String, Float> FIELD_BOOSTS = new LinkedHashMap<>();
+    static {
+        FIELD_BOOSTS.put("title", 3.0f);
+        FIELD_BOOSTS.put("brand", 2.0f);
+        FIELD_BOOSTS.put("model", 2.0f);
+        FIELD_BOOSTS.put("tags", 1.5f);
+        FIELD_BOOSTS.put("description", 1.0f);
+    }
+
+    // Changes only mark the reader stale; the next search reopens it once, so a burst of
+    // writes such as a bulk import costs one reopen rather than one per listing
+    private IndexSearcher acquireSearcher() throws IOException {
+        if (stale.getAndSet(false)) {
+            searcherManager.maybeRefreshBlocking();
+        }
+        return searcherManager.acquire();
+    }
+
+    private static final Sort SCORE_THEN_ID = new Sort(SortField.FIELD_SCORE, new SortField(ID, SortField.Type.LONG, true));
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Value("${linka.search.index-dir:data/search-index}")
+    private String indexDir;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile LocalDateTime indexedUpTo;
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path path = Paths.get(indexDir);
+        Files.createDirectories(path);
+        directory = FSDirectory.open(path);
+
+        if (DirectoryReader.indexExists(directory)) {
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                String stored = reader.getIndexCommit().getUserData().get(INDEXED_UP_TO);
+                indexedUpTo = stored != null ? LocalDateTime.parse(stored) : null;
+            }
+        }
+
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        commit();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Reuses the on-disk index when it still matches the database and only indexes what
+     * changed since the last commit; otherwise rebuilds it from scratch.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void synchronizeOnStartup() throws IOException {
+        long indexed = writer.getDocStats().numDocs;
+        long stored = listingRepository.count();
+        if (indexedUpTo == null || indexed != stored) {
+            rebuild();
+        } else {
+            catchUp();
+        }
+    }
+
+    public synchronized void rebuild() throws IOException {
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        writer.deleteAll();
+        indexedUpTo = null;
+        long count = 0;
+        Long afterId = 0L;
+        List<Listing> batch;
+        while (!(batch = listingRepository.findBatchAfterId(afterId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            for (Listing listing : batch) {
+                index(listing);
+            }
+            count += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        if (indexedUpTo == null) {
+            indexedUpTo = startedAt;
+        }
+        commit();
+        searcherManager.maybeRefresh();
+        logger.info("Rebuilt listing search index with {} listings in {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${linka.search.catch-up-interval-ms:60000}", initialDelayString = "${linka.search.catch-up-interval-ms:60000}")
+    public void scheduledCatchUp() {
+        try {
+            catchUp();
+        } catch (Exception e) {
+            logger.warn("Listing search index catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-indexes listings updated since the last indexed timestamp (with a minute of slack
+     * for clock skew between replicas and in-flight transactions).
+     */
+    public synchronized void catchUp() throws IOException {
+        if (indexedUpTo == null) {
+            rebuild();
+            return;
+        }
+        LocalDateTime since = indexedUpTo.minusMinutes(1);
+        Long afterId = 0L;
+        List<Listing> batch;
+        while (!(batch = listingRepository.findUpdatedBatchAfterId(since, afterId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            for (Listing listing : batch) {
+                index(listing);
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        commit();
+        searcherManager.maybeRefresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        try {
+            if (event.isDeleted()) {
+                writer.deleteDocuments(new Term(ID, event.getListingId().toString()));
+            } else {
+                index(event.getListing());
+            }
+            stale.set(true);
+        } catch (IOException e) {
+            logger.warn("Failed to index listing {}: {}", event.getListingId(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${linka.search.commit-interval-ms:30000}")
+    public synchronized void commit() throws IOException {
+        if (!writer.hasUncommittedChanges()) {
+            return;
+        }
+        LocalDateTime upTo = indexedUpTo;
+        if (upTo != null) {
+            writer.setLiveCommitData(Map.of(INDEXED_UP_TO, upTo.toString()).entrySet());
+        }
+        writer.commit();
+    }
+
+    public SearchResult search(String text, int page, int size) throws IOException {
+        Query query = buildQuery(text);
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            // Unlike search(query, n), the collector manager is not clamped to maxDoc by Lucene
+            long wanted = Math.min((long) (page + 1) * size, MAX_OFFSET_HITS);
+            int numHits = (int) Math.max(1, Math.min(searcher.getIndexReader().maxDoc(), wanted));
+            TopDocs topDocs = searcher.search(query, new TopScoreDocCollectorManager(numHits, Integer.MAX_VALUE));
+            List<Long> ids = new ArrayList<>();
+            ScoreDoc[] hits = topDocs.scoreDocs;
+            for (long i = (long) page * size; i < hits.length; i++) {
+                ids.add(idOf(searcher, hits[(int) i].doc));
+            }
+            return new SearchResult(ids, topDocs.totalHits.value, null);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Cursor mode: seeks past the (score, id) of the last hit of the previous page instead of
+     * collecting and skipping all earlier hits.
+     */
+    public SearchResult searchAfter(String text, String cursor, int size) throws IOException {
+        Query query = buildQuery(text);
+        FieldDoc after = decodeCursor(cursor);
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            TopDocs topDocs = searcher.searchAfter(after, query, size + 1, SCORE_THEN_ID, true);
+            List<Long> ids = new ArrayList<>();
+            ScoreDoc[] hits = topDocs.scoreDocs;
+            String nextCursor = null;
+            for (int i = 0; i < Math.min(size, hits.length); i++) {
+                ids.add(idOf(searcher, hits[i].doc));
+            }
+            if (hits.length > size) {
+                FieldDoc last = (FieldDoc) hits[size - 1];
+                nextCursor = encodeCursor((Float) last.fields[0], (Long) last.fields[1]);
+            }
+            return new SearchResult(ids, -1, nextCursor);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /** Ids of every active listing matching the text, unranked; used for facet counts. */
+    public RoaringBitmap matchingIds(String text) throws IOException {
+        Query query = buildQuery(text);
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            return searcher.search(query, new CollectorManager<IdCollector, RoaringBitmap>() {
+                @Override
+                public IdCollector newCollector() {
+                    return new IdCollector();
+                }
+
+                @Override
+                public RoaringBitmap reduce(Collection<IdCollector> collectors) {
+                    RoaringBitmap ids = new RoaringBitmap();
+                    for (IdCollector collector : collectors) {
+                        ids.or(collector.ids);
+                    }
+                    return ids;
+                }
+            });
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private void index(Listing listing) throws IOException {
+        Document doc = new Document();
+        String id = listing.getId().toString();
+        doc.add(new StringField(ID, id, Field.Store.NO));
+        doc.add(new StoredField(ID, listing.getId()));
+        doc.add(new NumericDocValuesField(ID, listing.getId()));
+        doc.add(new StringField(STATUS, listing.getStatus().name(), Field.Store.NO));
+        doc.add(new StringField(FEATURED, Boolean.toString(listing.isFeatured()), Field.Store.NO));
+        doc.add(new StringField(PREMIUM, Boolean.toString(listing.isPremium()), Field.Store.NO));
+        addText(doc, "title", listing.getTitle());
+        addText(doc, "description", listing.getDescription());
+        addText(doc, "tags", listing.getTags());
+        addText(doc, "brand", listing.getBrand());
+        addText(doc, "model", listing.getModel());
+        writer.updateDocument(new Term(ID, id), doc);
+
+        LocalDateTime updatedAt = listing.getUpdatedAt();
+        if (updatedAt != null && (indexedUpTo == null || updatedAt.isAfter(indexedUpTo))) {
+            indexedUpTo = updatedAt;
+        }
+    }
+
+    private void addText(Document doc, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            doc.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    /**
+     * Every search term must match some field, either exactly or within a small edit
+     * distance. Exact matches score higher than fuzzy ones.
+     */
+    private Query buildQuery(String text) throws IOException {
+        BooleanQuery.Builder terms = new BooleanQuery.Builder();
+        boolean hasTerms = false;
+        for (String token : analyze(text)) {
+            int maxEdits = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+            BooleanQuery.Builder perToken = new BooleanQuery.Builder();
+            for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+                Term term = new Term(field.getKey(), token);
+                perToken.add(new BoostQuery(new TermQuery(term), field.getValue()), BooleanClause.Occur.SHOULD);
+                if (maxEdits > 0) {
+                    perToken.add(new BoostQuery(new FuzzyQuery(term, maxEdits, 1), field.getValue() * 0.5f), BooleanClause.Occur.SHOULD);
+                }
+            }
+            terms.add(perToken.build(), BooleanClause.Occur.MUST);
+            hasTerms = true;
+        }
+        if (!hasTerms) {
+            throw new IllegalArgumentException("Search text must contain at least one word");
+        }
+
+        return new BooleanQuery.Builder()
+            .add(terms.build(), BooleanClause.Occur.MUST)
+            .add(new TermQuery(new Term(STATUS, Listing.Status.ACTIVE.name())), BooleanClause.Occur.FILTER)
+            .add(new BoostQuery(new ConstantScoreQuery(new TermQuery(new Term(FEATURED, "true"))), 1.5f), BooleanClause.Occur.SHOULD)
+            .add(new BoostQuery(new ConstantScoreQuery(new TermQuery(new Term(PREMIUM, "true"))), 1.0f), BooleanClause.Occur.SHOULD)
+            .build();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream("title", text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+
+    private Long idOf(IndexSearcher searcher, int doc) {
+        try {
+            return searcher.storedFields().document(doc).getField(ID).numericValue().longValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String encodeCursor(float score, long id) {
+        String raw = score + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private FieldDoc decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int comma = raw.indexOf(',');
+            float score = Float.parseFloat(raw.substring(0, comma));
+            long id = Long.parseLong(raw.substring(comma + 1));
+            return new FieldDoc(0, score, new Object[] {score, id});
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static class IdCollector extends SimpleCollector {
+        private final RoaringBitmap ids = new RoaringBitmap();
+        private NumericDocValues values;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            values = DocValues.getNumeric(context.reader(), ID);
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (values.advanceExact(doc)) {
+                ids.add(Math.toIntExact(values.longValue()));
+            }
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+
+    /**
+     * Ranked listing ids for one page. {@code totalHits} is -1 in cursor mode, where
+     * counting is skipped.
+     */
+    public static class SearchResult {
+        private final List<Long> ids;
+        private final long totalHits;
+        private final String nextCursor;
+
+        public SearchResult(List<Long> ids, long totalHits, String nextCursor) {
+            this.ids = ids;
+            this.totalHits = totalHits;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Long> getIds() { return ids; }
+        public long getTotalHits() { return totalHits; }
+        public String getNextCursor() { return nextCursor; }
+    }
+}
@@ -0,0 +1,228 @@
+package com.linka.backend.service;
+
+import com.linka.backend.dto.ListingSnapshot;
+import com.linka.backend.entity.Category;
+import com.linka.backend.repository.CategoryRepository;
+import com.linka.backend.util.SuggestionTrie;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-as-you-type suggestions from an in-memory {@link SuggestionTrie} over active listing
+ * titles, brands and tags plus category names.
+ *
+ * Each active listing contributes {@code viewCount + 1} to the weight of each of its terms and
+ * to its category's name, so popular terms rank first. {@link ListingReadModels} updates the
+ * trie incrementally and rebuilds it periodically to pick up flushed view counts and changes
+ * made by other replicas.
+ */
+@Service
+public class ListingSuggestService implements ListingReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingSuggestService.class);
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private static final String TITLE = "title";
+    private static final String BRAND = "brand";
+    private static final String TAG = "tag";
+    private static final String CATEGORY = "category";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Object lock = new Object();
+    private volatile Index index = Index.empty();
+
+    private Timer buildTimer;
+    private Timer lookupTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("linka.suggest.terms", this, s -> s.index.trie.getTermCount())
+            .description("Distinct terms in the suggestion trie")
+            .register(meterRegistry);
+        Gauge.builder("linka.suggest.nodes", this, s -> s.index.trie.getNodeCount())
+            .description("Nodes in the suggestion trie")
+            .register(meterRegistry);
+        Gauge.builder("linka.suggest.memory", this, s -> s.index.trie.estimateMemoryBytes())
+            .description("Estimated heap used by the suggestion trie")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        buildTimer = Timer.builder("linka.suggest.build")
+            .description("Time to rebuild the suggestion trie from the database")
+            .register(meterRegistry);
+        lookupTimer = Timer.builder("linka.suggest.lookup")
+            .description("Time to answer one suggestion lookup")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void apply(Long listingId, ListingSnapshot snapshot) {
+        Change change = toChange(listingId, snapshot);
+        synchronized (lock) {
+            index.apply(change);
+        }
+    }
+
+    @Override
+    public Build newBuild() {
+        long start = System.nanoTime();
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (Category category : categoryRepository.findByActiveTrueOrderBySortOrderAsc()) {
+            categoryNames.put(category.getId(), category.getName());
+        }
+        Index fresh = new Index(categoryNames);
+        return new Build() {
+            @Override
+            public void apply(Long listingId, ListingSnapshot snapshot) {
+                fresh.apply(toChange(listingId, snapshot));
+            }
+
+            @Override
+            public void loaded() {
+                fresh.loadTrie();
+            }
+
+            @Override
+            public void install() {
+                synchronized (lock) {
+                    index = fresh;
+                }
+                buildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                logger.debug("Built suggestion trie with {} terms", fresh.trie.getTermCount());
+            }
+        };
+    }
+
+    public List<SuggestionTrie.Suggestion> suggest(String query, int limit) {
+        long start = System.nanoTime();
+        List<SuggestionTrie.Suggestion> suggestions = index.trie.suggest(normalize(query), limit);
+        lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return suggestions;
+    }
+
+    private Change toChange(Long listingId, ListingSnapshot listing) {
+        if (listing == null || !listing.isActive()) {
+            return new Change(listingId, null);
+        }
+        List<String[]> terms = new ArrayList<>();
+        addTerm(terms, listing.title(), TITLE);
+        addTerm(terms, listing.brand(), BRAND);
+        for (String tag : listing.tagList()) {
+            addTerm(terms, tag, TAG);
+        }
+        return new Change(listingId, new Contribution(terms, listing.categoryId(), listing.viewCount() + 1L));
+    }
+
+    private static void addTerm(List<String[]> terms, String text, String type) {
+        if (text != null && !text.isBlank()) {
+            terms.add(new String[] {text.trim(), type});
+        }
+    }
+
+    static String normalize(String text) {
+        String key = text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /** A listing's new contribution, or {@code null} when it no longer contributes. */
+    private record Change(Long listingId, Contribution contribution) {}
+
+    private record Contribution(List<String[]> terms, Long categoryId, long weight) {}
+
+    private static final class TermWeight {
+        final String text;
+        final String type;
+        long weight;
+
+        TermWeight(String text, String type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
+    /** The trie plus the bookkeeping needed to subtract a listing's previous contribution. */
+    private static final class Index {
+        final SuggestionTrie trie = new SuggestionTrie(MAX_SUGGESTIONS);
+        final Map<String, TermWeight> terms = new HashMap<>();
+        final Map<Long, Contribution> listings = new HashMap<>();
+        final Map<Long, String> categoryNames;
+        // While loading, only term weights are tracked and the trie is filled once at the end
+        boolean loading = true;
+
+        Index(Map<Long, String> categoryNames) {
+            this.categoryNames = categoryNames;
+            // Categories are suggested even before they have active listings
+            for (String name : categoryNames.values()) {
+                adjust(name, CATEGORY, 1);
+            }
+        }
+
+        static Index empty() {
+            Index index = new Index(new HashMap<>());
+            index.loadTrie();
+            return index;
+        }
+
+        void loadTrie() {
+            for (Map.Entry<String, TermWeight> entry : terms.entrySet()) {
+                TermWeight term = entry.getValue();
+                trie.load(entry.getKey(), term.text, term.type, term.weight);
+            }
+            trie.computeTopK();
+            loading = false;
+        }
+
+        void apply(Change change) {
+            Contribution previous = change.contribution() != null
+                ? listings.put(change.listingId(), change.contribution())
+                : listings.remove(change.listingId());
+            if (previous != null) {
+                contribute(previous, -1);
+            }
+            if (change.contribution() != null) {
+                contribute(change.contribution(), 1);
+            }
+        }
+
+        private void contribute(Contribution contribution, int sign) {
+            for (String[] term : contribution.terms()) {
+                adjust(term[0], term[1], sign * contribution.weight());
+            }
+            String categoryName = categoryNames.get(contribution.categoryId());
+            if (categoryName != null) {
+                adjust(categoryName, CATEGORY, sign * contribution.weight());
+            }
+        }
+
+        private void adjust(String text, String type, long delta) {
+            String key = normalize(text);
+            TermWeight term = terms.computeIfAbsent(key, k -> new TermWeight(text, type));
+            term.weight += delta;
+            if (term.weight <= 0) {
+                terms.remove(key);
+            }
+            if (!loading) {
+                trie.put(key, term.text, term.type, term.weight);
+            }
+        }
+    }
+}
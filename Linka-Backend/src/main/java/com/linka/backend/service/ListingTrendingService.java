@@ -0,0 +1,169 @@
+package com.linka.backend.service;
+
+import com.linka.backend.dto.ListingSnapshot;
+import com.linka.backend.event.ListingEngagementEvent;
+import com.linka.backend.util.CategoryTopK;
+import com.linka.backend.util.SerialQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-decayed trending ranking of ACTIVE listings, kept as a bounded top-K overall and per
+ * category so {@code /trending} reads in O(K).
+ *
+ * Every view, favorite and contact adds its weight to the listing's score, decayed
+ * exponentially with the configured half-life. Rather than decaying every score on every
+ * tick, increments are scaled up by {@code e^(λ(t - landmark))}: relative order is the same
+ * as with true decay and scores only ever grow, which keeps {@link CategoryTopK} exact. The
+ * landmark is moved forward (rescaling all scores) before the factor can overflow.
+ * Engagement events are queued and applied by one background thread, so recording a view
+ * never waits on the ranking lock.
+ *
+ * On startup scores are seeded from the persisted lifetime counters as if all engagement had
+ * happened when the listing was created; after that only engagement seen by this instance
+ * counts. Each {@link ListingReadModels} rebuild brings the set of ranked listings back in
+ * line with the table without touching live scores.
+ */
+@Service
+public class ListingTrendingService implements ListingReadModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingTrendingService.class);
+
+    public static final int K = 50;
+
+    private static final double VIEW_WEIGHT = 1;
+    private static final double FAVORITE_WEIGHT = 3;
+    private static final double CONTACT_WEIGHT = 5;
+    // Rescale well before e^x loses precision or overflows
+    private static final double MAX_EXPONENT = 40;
+    private static final int ENGAGEMENT_QUEUE_CAPACITY = 10_000;
+
+    private final double lambda;
+    private long landmarkMillis = System.currentTimeMillis();
+
+    private final CategoryTopK ranking = new CategoryTopK(K);
+
+    // Engagement is published on the request thread for every view; it is applied here instead
+    private final SerialQueue<Engagement> engagements =
+        new SerialQueue<>("trending-engagement", ENGAGEMENT_QUEUE_CAPACITY, this::applyEngagement);
+
+    public ListingTrendingService(@Value("${linka.trending.half-life-hours:24}") double halfLifeHours) {
+        this.lambda = Math.log(2) / (halfLifeHours * 3600_000);
+    }
+
+    /**
+     * Reconciles membership with the listings table: listings that became ACTIVE elsewhere
+     * (an admin, another replica, a direct update) are added, seeded from their lifetime
+     * counters as on startup, and listings no longer ACTIVE are dropped. Listings already
+     * ranked keep their live score and only pick up category moves.
+     */
+    @Override
+    public Build newBuild() {
+        Map<Long, Seed> loaded = new HashMap<>();
+        return new Build() {
+            @Override
+            public void apply(Long listingId, ListingSnapshot listing) {
+                if (listing == null || !listing.isActive()) {
+                    loaded.remove(listingId);
+                    return;
+                }
+                double engagement = listing.viewCount() * VIEW_WEIGHT
+                    + listing.favoriteCount() * FAVORITE_WEIGHT
+                    + listing.contactCount() * CONTACT_WEIGHT;
+                loaded.put(listingId, new Seed(listing.categoryId(), engagement, toMillis(listing.createdAt())));
+            }
+
+            @Override
+            public void install() {
+                int added = 0;
+                int removed = 0;
+                synchronized (ListingTrendingService.this) {
+                    for (Long id : ranking.ids()) {
+                        if (!loaded.containsKey(id)) {
+                            ranking.remove(id);
+                            removed++;
+                        }
+                    }
+                    for (Map.Entry<Long, Seed> entry : loaded.entrySet()) {
+                        Long id = entry.getKey();
+                        Seed seed = entry.getValue();
+                        if (ranking.contains(id)) {
+                            ranking.put(id, seed.categoryId(), ranking.score(id));
+                        } else {
+                            double score = seed.engagement() * Math.exp(lambda * (seed.createdAtMillis() - landmarkMillis));
+                            ranking.put(id, seed.categoryId(), score);
+                            added++;
+                        }
+                    }
+                }
+                logger.debug("Reconciled trending ranking over {} listings ({} added, {} removed)", loaded.size(), added, removed);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        engagements.close();
+    }
+
+    @EventListener
+    public void onEngagement(ListingEngagementEvent event) {
+        engagements.offer(new Engagement(event.getListingId(), event.getType(), System.currentTimeMillis()));
+    }
+
+    private synchronized void applyEngagement(Engagement engagement) {
+        Long id = engagement.listingId();
+        if (!ranking.contains(id)) {
+            return;
+        }
+        double weight = switch (engagement.type()) {
+            case VIEW -> VIEW_WEIGHT;
+            case FAVORITE -> FAVORITE_WEIGHT;
+            case CONTACT -> CONTACT_WEIGHT;
+        };
+        long at = engagement.atMillis();
+        if (lambda * (at - landmarkMillis) > MAX_EXPONENT) {
+            rescale(at);
+        }
+        double score = ranking.score(id) + weight * Math.exp(lambda * (at - landmarkMillis));
+        ranking.setScore(id, score);
+    }
+
+    @Override
+    public synchronized void apply(Long listingId, ListingSnapshot listing) {
+        if (listing == null || !listing.isActive()) {
+            ranking.remove(listingId);
+        } else {
+            ranking.put(listingId, listing.categoryId(), ranking.score(listingId));
+        }
+    }
+
+    /** Ids of the top trending listings, overall or within one category. */
+    public synchronized List<Long> top(Long categoryId, int limit) {
+        return ranking.top(categoryId, limit);
+    }
+
+    private void rescale(long now) {
+        ranking.scaleAll(Math.exp(-lambda * (now - landmarkMillis)));
+        landmarkMillis = now;
+        logger.debug("Rescaled trending scores to a new landmark");
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? System.currentTimeMillis() : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Seed(Long categoryId, double engagement, long createdAtMillis) {}
+
+    private record Engagement(Long listingId, ListingEngagementEvent.Type type, long atMillis) {}
+}
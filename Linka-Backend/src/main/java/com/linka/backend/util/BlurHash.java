@@ -0,0 +1,126 @@
+package com.linka.backend.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Encoder for BlurHash (https://blurha.sh): a few DCT components of an image packed into a
+ * short base-83 string that clients decode into a blurred placeholder while the photo loads.
+ * The first component is the image's average colour, which {@link #averageColor} reads back.
+ */
+public final class BlurHash {
+
+    private static final String DIGITS =
+        "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    // The placeholder only carries a handful of frequencies, so a tiny copy gives the same hash
+    private static final int SAMPLE_EDGE = 32;
+
+    private BlurHash() {}
+
+    /** Four components along the long edge and three along the short one. */
+    public static String encode(BufferedImage image) {
+        boolean landscape = image.getWidth() >= image.getHeight();
+        return encode(image, landscape ? 4 : 3, landscape ? 3 : 4);
+    }
+
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("BlurHash takes 1 to 9 components per axis");
+        }
+        BufferedImage sample = ImageResizer.scale(image, SAMPLE_EDGE);
+        int width = sample.getWidth();
+        int height = sample.getHeight();
+        int[] pixels = sample.getRGB(0, 0, width, height, null, 0, width);
+        double[] linear = new double[pixels.length * 3];
+        for (int p = 0; p < pixels.length; p++) {
+            linear[p * 3] = toLinear((pixels[p] >> 16) & 0xFF);
+            linear[p * 3 + 1] = toLinear((pixels[p] >> 8) & 0xFF);
+            linear[p * 3 + 2] = toLinear(pixels[p] & 0xFF);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = factor(linear, width, height, i, j);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83((componentsX - 1) + (componentsY - 1) * 9, 1, hash);
+        double maximum = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(value));
+                }
+            }
+            int quantised = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximum = (quantised + 1) / 166.0;
+            encode83(quantised, 1, hash);
+        } else {
+            encode83(0, 1, hash);
+        }
+        double[] dc = factors[0];
+        encode83((toSrgb(dc[0]) << 16) | (toSrgb(dc[1]) << 8) | toSrgb(dc[2]), 4, hash);
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            encode83(quantise(ac[0], maximum) * 19 * 19 + quantise(ac[1], maximum) * 19 + quantise(ac[2], maximum), 2, hash);
+        }
+        return hash.toString();
+    }
+
+    /** The average colour held in a hash, as {@code #rrggbb}. */
+    public static String averageColor(String hash) {
+        int rgb = 0;
+        for (int k = 2; k < 6; k++) {
+            rgb = rgb * 83 + DIGITS.indexOf(hash.charAt(k));
+        }
+        return String.format("#%06x", rgb);
+    }
+
+    private static double[] factor(double[] linear, int width, int height, int i, int j) {
+        double normalisation = i == 0 && j == 0 ? 1 : 2;
+        double[] cosX = new double[width];
+        for (int x = 0; x < width; x++) {
+            cosX[x] = Math.cos(Math.PI * i * x / width);
+        }
+        double r = 0, g = 0, b = 0;
+        for (int y = 0; y < height; y++) {
+            double cosY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double basis = cosX[x] * cosY;
+                int p = (y * width + x) * 3;
+                r += basis * linear[p];
+                g += basis * linear[p + 1];
+                b += basis * linear[p + 2];
+            }
+        }
+        double scale = normalisation / (width * height);
+        return new double[] {r * scale, g * scale, b * scale};
+    }
+
+    private static int quantise(double value, double maximum) {
+        double scaled = Math.copySign(Math.sqrt(Math.abs(value / maximum)), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(scaled * 9 + 9.5)));
+    }
+
+    private static double toLinear(int channel) {
+        double v = channel / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int toSrgb(double linear) {
+        double v = Math.max(0, Math.min(1, linear));
+        return v <= 0.0031308
+            ? (int) (v * 12.92 * 255 + 0.5)
+            : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(int value, int length, StringBuilder out) {
+        for (int k = 1; k <= length; k++) {
+            int digit = (value / (int) Math.pow(83, length - k)) % 83;
+            out.append(DIGITS.charAt(digit));
+        }
+    }
+}
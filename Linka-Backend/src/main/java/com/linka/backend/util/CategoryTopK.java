@@ -0,0 +1,132 @@
+package com.linka.backend.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Scores for a set of listings plus a bounded {@link TopK} over all of them and one per
+ * category. Reading a ranking is O(k).
+ *
+ * Like {@link TopK}, rankings stay exact only while each listing's score never decreases.
+ * Removing a listing or moving it to another category refills the freed slot by re-offering
+ * the remaining listings, which costs O(n log k) but only happens on status or category
+ * changes. Not thread-safe.
+ */
+public class CategoryTopK {
+
+    private final int k;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TopK overall;
+    private final Map<Long, TopK> byCategory = new HashMap<>();
+
+    public CategoryTopK(int k) {
+        this.k = k;
+        this.overall = new TopK(k);
+    }
+
+    public boolean contains(long id) {
+        return entries.containsKey(id);
+    }
+
+    public double score(long id) {
+        Entry entry = entries.get(id);
+        return entry == null ? 0 : entry.score;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** A copy of the ids currently scored, safe to iterate while removing. */
+    public Set<Long> ids() {
+        return new HashSet<>(entries.keySet());
+    }
+
+    /** Adds a listing or updates its category and score. */
+    public void put(long id, Long categoryId, double score) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            entry = new Entry(categoryId, score);
+            entries.put(id, entry);
+        } else {
+            entry.score = score;
+            if (!Objects.equals(entry.categoryId, categoryId)) {
+                Long previousCategoryId = entry.categoryId;
+                entry.categoryId = categoryId;
+                removeFromCategory(id, previousCategoryId);
+            }
+        }
+        overall.offer(id, score);
+        if (categoryId != null) {
+            byCategory.computeIfAbsent(categoryId, c -> new TopK(k)).offer(id, score);
+        }
+    }
+
+    /** Updates the score of a listing already present, keeping its category. */
+    public void setScore(long id, double score) {
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            put(id, entry.categoryId, score);
+        }
+    }
+
+    public void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        if (overall.remove(id)) {
+            for (Map.Entry<Long, Entry> other : entries.entrySet()) {
+                overall.offer(other.getKey(), other.getValue().score);
+            }
+        }
+        removeFromCategory(id, entry.categoryId);
+    }
+
+    /** Multiplies every score by the same positive factor; rankings are unchanged. */
+    public void scaleAll(double factor) {
+        for (Entry entry : entries.values()) {
+            entry.score *= factor;
+        }
+        overall.clear();
+        byCategory.clear();
+        for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+            Entry value = entry.getValue();
+            overall.offer(entry.getKey(), value.score);
+            if (value.categoryId != null) {
+                byCategory.computeIfAbsent(value.categoryId, c -> new TopK(k)).offer(entry.getKey(), value.score);
+            }
+        }
+    }
+
+    /** Ids of the highest-scoring listings, overall when {@code categoryId} is null. */
+    public List<Long> top(Long categoryId, int limit) {
+        TopK topK = categoryId == null ? overall : byCategory.get(categoryId);
+        return topK == null ? List.of() : topK.top(limit);
+    }
+
+    private void removeFromCategory(long id, Long categoryId) {
+        TopK category = categoryId != null ? byCategory.get(categoryId) : null;
+        if (category != null && category.remove(id)) {
+            for (Map.Entry<Long, Entry> other : entries.entrySet()) {
+                if (categoryId.equals(other.getValue().categoryId)) {
+                    category.offer(other.getKey(), other.getValue().score);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        Long categoryId;
+        double score;
+
+        Entry(Long categoryId, double score) {
+            this.categoryId = categoryId;
+            this.score = score;
+        }
+    }
+}
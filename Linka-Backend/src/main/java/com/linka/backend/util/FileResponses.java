@@ -0,0 +1,164 @@
+package com.linka.backend.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Sends stored files over HTTP with validators, single byte ranges and long-lived caching for
+ * names that can never point at different bytes. Under Tomcat the body goes out via sendfile,
+ * straight from the page cache to the socket. Anywhere else it goes through
+ * {@link FileChannel#transferTo}.
+ */
+public final class FileResponses {
+
+    // Tomcat's sendfile contract: set these request attributes and return without writing a body
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // UUID and SHA-256 names (optionally with a variant suffix) are never reused for other bytes
+    private static final Pattern IMMUTABLE_NAME = Pattern.compile(
+        "([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}|[0-9a-f]{64})(_[a-z]+)?\\.[A-Za-z0-9]+");
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    // Looked up by extension instead of probing the file on every request
+    private static final Map<String, String> CONTENT_TYPES = new ConcurrentHashMap<>(Map.of(
+        "jpg", MediaType.IMAGE_JPEG_VALUE,
+        "jpeg", MediaType.IMAGE_JPEG_VALUE,
+        "png", MediaType.IMAGE_PNG_VALUE,
+        "gif", MediaType.IMAGE_GIF_VALUE,
+        "webp", "image/webp"
+    ));
+
+    private FileResponses() {}
+
+    /** Writes the file, or the one byte range asked for, answering 404 when it does not exist. */
+    public static void send(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String filename = file.getFileName().toString();
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        boolean immutable = IMMUTABLE_NAME.matcher(filename).matches();
+        // Strong either way, so If-Range can match: the name for immutable files, size and mtime otherwise
+        String eTag = immutable
+            ? "\"" + filename.substring(0, filename.lastIndexOf('.')) + "\""
+            : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (immutable ? IMMUTABLE : REVALIDATE).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, eTag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                // A malformed Range header is ignored, as RFC 9110 requires
+                ranges = List.of();
+            }
+            // Several ranges would need a multipart/byteranges body; the whole file is allowed instead
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        response.setContentType(contentType(filename));
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equals(request.getMethod()) || end < start) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    break; // truncated underneath us
+                }
+                position += sent;
+            }
+        }
+    }
+
+    public static String contentType(String filename) {
+        String extension = StringUtils.getFilenameExtension(filename);
+        if (extension == null) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+        return CONTENT_TYPES.computeIfAbsent(extension.toLowerCase(Locale.ROOT), key ->
+            MediaTypeFactory.getMediaType("file." + key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+    }
+
+    /** If-Range lets a client resume only while its partial copy is still current. */
+    private static boolean ifRangeMatches(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(eTag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.linka.backend.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and bounding-box cell covering.
+ *
+ * A geohash interleaves longitude and latitude bits into base32, so points in the same cell
+ * share a string prefix and a cell lookup becomes a prefix range scan over sorted keys.
+ */
+public final class GeoHash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GeoHash() {
+    }
+
+    public static String encode(double lat, double lng, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean even = true;
+        int bit = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (even) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch <<= 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /** Height of a cell at the given precision, in degrees of latitude. */
+    public static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    /** Width of a cell at the given precision, in degrees of longitude. */
+    public static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /**
+     * Geohash cells covering the circle of {@code radiusKm} around a point, at the finest
+     * precision that needs no more than {@code maxCells} cells. Every point within the radius
+     * falls in one of the returned cells; the caller still filters by exact distance.
+     */
+    public static Set<String> coveringCells(double lat, double lng, double radiusKm, int maxCells) {
+        double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double dLng = Math.min(dLat / cosLat, 180);
+        double south = Math.max(lat - dLat, -90);
+        double north = Math.min(lat + dLat, 90);
+        double west = lng - dLng;
+        double east = lng + dLng;
+
+        int precision = 1;
+        for (int p = MAX_PRECISION; p > 1; p--) {
+            long rows = (long) Math.floor((north - south) / cellHeight(p)) + 2;
+            long cols = (long) Math.floor((east - west) / cellWidth(p)) + 2;
+            if (rows * cols <= maxCells) {
+                precision = p;
+                break;
+            }
+        }
+
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        for (double y = south; y < north + height; y += height) {
+            double cellLat = Math.min(y, north);
+            for (double x = west; x < east + width; x += width) {
+                cells.add(encode(cellLat, normalizeLng(Math.min(x, east)), precision));
+            }
+        }
+        return cells;
+    }
+
+    /** Great-circle distance in kilometres (haversine). */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double normalizeLng(double lng) {
+        return ((lng + 180) % 360 + 360) % 360 - 180;
+    }
+}
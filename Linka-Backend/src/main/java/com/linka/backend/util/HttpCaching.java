@@ -0,0 +1,81 @@
+package com.linka.backend.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * Validators and surrogate keys for conditional GETs, and the Accept-Encoding check for
+ * responses stored pre-compressed.
+ *
+ * Surrogate keys name what a response was built from, so a fronting CDN can purge every
+ * cached response for one category or for the whole catalog with a single request. Only
+ * public, CDN-cacheable responses carry them; listing responses need a login and are private.
+ */
+public final class HttpCaching {
+
+    public static final String SURROGATE_KEY = "Surrogate-Key";
+
+    /** Surrogate key of every category response. */
+    public static final String CATEGORIES_KEY = "categories";
+
+    private HttpCaching() {}
+
+    public static String categoryKey(Long categoryId) {
+        return "category-" + categoryId;
+    }
+
+    /** Weak ETag for a version token; weak because equal versions need not be byte-identical. */
+    public static String weakETag(String version) {
+        return "W/\"" + version + "\"";
+    }
+
+    public static String weakETag(byte[] content) {
+        return weakETag(DigestUtils.md5DigestAsHex(content));
+    }
+
+    /**
+     * Whether an Accept-Encoding value allows gzip: a {@code gzip} (or {@code x-gzip}) coding
+     * with a non-zero q-value, or failing that a {@code *} with one. {@code gzip;q=0} refuses
+     * it even when {@code *} is accepted.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = qValue(parts) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    // A missing q means 1; one that does not parse is read as 0, so a garbled header gets identity
+    private static double qValue(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() >= 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q') && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    public static long toEpochMillis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,254 @@
+package com.linka.backend.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Copies an uploaded image without the metadata a camera or editor attached to it: EXIF
+ * (camera, serial numbers, GPS position), XMP, IPTC and comments. What decoders need to show
+ * the picture as intended is kept: the JFIF and Adobe segments and the ICC profile of a JPEG,
+ * and its EXIF orientation, re-written as a minimal EXIF segment with that one tag. Anything
+ * after the end of the image (e.g. the extra pictures of an MPO) is dropped.
+ *
+ * JPEG and PNG are streamed. A WebP file is rewritten in memory, since its RIFF header holds
+ * the total size; callers bound the input. GIF has no standard place for such data and is
+ * copied as is.
+ */
+public final class ImageMetadata {
+
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+    private static final int APP0 = 0xE0;
+    private static final int APP1 = 0xE1;
+    private static final int APP2 = 0xE2;
+    private static final int APP14 = 0xEE;
+    private static final int APP15 = 0xEF;
+    private static final int COM = 0xFE;
+
+    private static final byte[] ICC_PROFILE = "ICC_PROFILE\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    // Ancillary PNG chunks that carry text, EXIF or timestamps rather than pixels or colour
+    private static final Set<String> PNG_METADATA = Set.of("eXIf", "tEXt", "iTXt", "zTXt", "tIME");
+    private static final Set<String> WEBP_METADATA = Set.of("EXIF", "XMP ");
+    // VP8X feature flags announcing the EXIF and XMP chunks
+    private static final int VP8X_EXIF = 0x08;
+    private static final int VP8X_XMP = 0x04;
+
+    private ImageMetadata() {}
+
+    /**
+     * Writes {@code in} to {@code out} without its metadata. {@code extension} is the sniffed
+     * type ({@code jpg}, {@code png}, {@code gif} or {@code webp}).
+     *
+     * @throws IOException when the file is not well-formed enough to be walked
+     */
+    public static void strip(InputStream in, OutputStream out, String extension) throws IOException {
+        switch (extension) {
+            case "jpg" -> stripJpeg(in, out);
+            case "png" -> stripPng(in, out);
+            case "webp" -> out.write(stripWebp(in.readAllBytes()));
+            default -> in.transferTo(out);
+        }
+    }
+
+    private static void stripJpeg(InputStream in, OutputStream out) throws IOException {
+        if (read(in) != 0xFF || read(in) != SOI) {
+            throw new IOException("Not a JPEG file");
+        }
+        out.write(0xFF);
+        out.write(SOI);
+        boolean orientationWritten = false;
+        int marker = nextMarker(in);
+        while (true) {
+            if (marker == EOI) {
+                out.write(0xFF);
+                out.write(EOI);
+                return;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // Standalone markers carry no length
+                out.write(0xFF);
+                out.write(marker);
+                marker = nextMarker(in);
+                continue;
+            }
+            int length = (read(in) << 8) | read(in);
+            if (length < 2) {
+                throw new IOException("Malformed JPEG segment");
+            }
+            byte[] payload = in.readNBytes(length - 2);
+            if (payload.length != length - 2) {
+                throw new EOFException("JPEG segment cut short");
+            }
+            if (marker == APP1 && !orientationWritten) {
+                int orientation = ImageResizer.exifOrientation(payload);
+                if (orientation > 1) {
+                    writeSegment(out, APP1, orientationExif(orientation));
+                    orientationWritten = true;
+                }
+            }
+            if (keepJpegSegment(marker, payload)) {
+                writeSegment(out, marker, payload);
+            }
+            marker = marker == SOS ? copyScan(in, out) : nextMarker(in);
+        }
+    }
+
+    private static boolean keepJpegSegment(int marker, byte[] payload) {
+        if (marker == COM) {
+            return false;
+        }
+        if (marker < APP0 || marker > APP15) {
+            return true;
+        }
+        return marker == APP0 || marker == APP14
+            || (marker == APP2 && Arrays.equals(payload, 0, Math.min(payload.length, ICC_PROFILE.length), ICC_PROFILE, 0, ICC_PROFILE.length));
+    }
+
+    /**
+     * Copies entropy-coded data up to the next marker and returns it. In the data a 0xFF is
+     * always followed by a stuffed 0x00 or a restart marker, so any other byte ends the scan.
+     */
+    private static int copyScan(InputStream in, OutputStream out) throws IOException {
+        while (true) {
+            int b = read(in);
+            if (b != 0xFF) {
+                out.write(b);
+                continue;
+            }
+            int next = read(in);
+            while (next == 0xFF) {
+                next = read(in);
+            }
+            if (next == 0x00 || (next >= 0xD0 && next <= 0xD7)) {
+                out.write(0xFF);
+                out.write(next);
+            } else {
+                return next;
+            }
+        }
+    }
+
+    private static int nextMarker(InputStream in) throws IOException {
+        if (read(in) != 0xFF) {
+            throw new IOException("Malformed JPEG: expected a marker");
+        }
+        int marker = read(in);
+        // Any number of 0xFF fill bytes may precede the marker code
+        while (marker == 0xFF) {
+            marker = read(in);
+        }
+        return marker;
+    }
+
+    private static void writeSegment(OutputStream out, int marker, byte[] payload) throws IOException {
+        int length = payload.length + 2;
+        out.write(0xFF);
+        out.write(marker);
+        out.write(length >> 8);
+        out.write(length);
+        out.write(payload);
+    }
+
+    /** "Exif\0\0" and a big-endian TIFF header whose only IFD entry is the orientation. */
+    static byte[] orientationExif(int orientation) {
+        ByteBuffer exif = ByteBuffer.allocate(6 + 8 + 2 + 12 + 4).order(ByteOrder.BIG_ENDIAN);
+        exif.put("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+        exif.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        exif.putShort((short) 1);
+        // Tag 0x0112, type SHORT, one value, stored left-justified in the value field
+        exif.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        exif.putInt(0);
+        return exif.array();
+    }
+
+    private static void stripPng(InputStream in, OutputStream out) throws IOException {
+        byte[] signature = in.readNBytes(PNG_SIGNATURE.length);
+        if (!Arrays.equals(signature, PNG_SIGNATURE)) {
+            throw new IOException("Not a PNG file");
+        }
+        out.write(signature);
+        byte[] header = new byte[8];
+        while (true) {
+            if (in.readNBytes(header, 0, 8) != 8) {
+                throw new EOFException("PNG ended before IEND");
+            }
+            long length = ByteBuffer.wrap(header, 0, 4).getInt() & 0xFFFFFFFFL;
+            String type = new String(header, 4, 4, StandardCharsets.US_ASCII);
+            // Data and CRC; the CRC covers only this chunk, so dropping one leaves the others valid
+            long remaining = length + 4;
+            if (PNG_METADATA.contains(type)) {
+                in.skipNBytes(remaining);
+                continue;
+            }
+            out.write(header);
+            copy(in, out, remaining);
+            if (type.equals("IEND")) {
+                return;
+            }
+        }
+    }
+
+    private static byte[] stripWebp(byte[] webp) throws IOException {
+        if (webp.length < 12 || !ascii(webp, 0, "RIFF") || !ascii(webp, 8, "WEBP")) {
+            throw new IOException("Not a WebP file");
+        }
+        ByteBuffer in = ByteBuffer.wrap(webp).order(ByteOrder.LITTLE_ENDIAN);
+        long riffEnd = Math.min(webp.length, 8 + (in.getInt(4) & 0xFFFFFFFFL));
+        ByteBuffer out = ByteBuffer.allocate(webp.length).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(webp, 0, 12);
+        int position = 12;
+        while (position + 8 <= riffEnd) {
+            long size = in.getInt(position + 4) & 0xFFFFFFFFL;
+            // Chunks are padded to an even length
+            long next = position + 8 + size + (size & 1);
+            if (next > riffEnd) {
+                throw new EOFException("WebP chunk cut short");
+            }
+            String type = new String(webp, position, 4, StandardCharsets.US_ASCII);
+            if (!WEBP_METADATA.contains(type)) {
+                int start = out.position();
+                out.put(webp, position, (int) (next - position));
+                if (type.equals("VP8X") && size > 0) {
+                    out.put(start + 8, (byte) (webp[position + 8] & ~(VP8X_EXIF | VP8X_XMP)));
+                }
+            }
+            position = (int) next;
+        }
+        out.putInt(4, out.position() - 8);
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    private static boolean ascii(byte[] bytes, int offset, String text) {
+        return new String(bytes, offset, text.length(), StandardCharsets.US_ASCII).equals(text);
+    }
+
+    private static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (count > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (read < 0) {
+                throw new EOFException("Image ended mid-chunk");
+            }
+            out.write(buffer, 0, read);
+            count -= read;
+        }
+    }
+
+    private static int read(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Image ended unexpectedly");
+        }
+        return b;
+    }
+}
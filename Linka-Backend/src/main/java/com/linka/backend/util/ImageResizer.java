@@ -0,0 +1,281 @@
+package com.linka.backend.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Turns one uploaded photo into the JPEG sizes listings are served at. The EXIF orientation is
+ * applied to the pixels and no metadata is written back, so camera details and GPS position do
+ * not survive. Only the JDK's ImageIO codecs are used: anything it cannot decode (WebP, HEIC)
+ * fails with an IOException.
+ */
+public final class ImageResizer {
+
+    public enum Variant {
+        // Largest first: each variant is scaled down from the one before it
+        FULL(1600, 0.85f),
+        CARD(640, 0.80f),
+        THUMB(240, 0.75f);
+
+        private final int maxEdge;
+        private final float quality;
+
+        Variant(int maxEdge, float quality) {
+            this.maxEdge = maxEdge;
+            this.quality = quality;
+        }
+
+        public int getMaxEdge() { return maxEdge; }
+        public float getQuality() { return quality; }
+        public String suffix() { return name().toLowerCase(); }
+    }
+
+    private static final int SOI = 0xFFD8;
+    private static final int SOS = 0xFFDA;
+    private static final int APP1 = 0xFFE1;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ImageResizer() {}
+
+    public static Map<Variant, byte[]> render(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            return render(input);
+        }
+    }
+
+    public static Map<Variant, byte[]> render(byte[] source) throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(source))) {
+            return render(input);
+        }
+    }
+
+    /** Encoded JPEG bytes for every variant, never larger than the source. */
+    public static Map<Variant, byte[]> render(ImageInputStream input) throws IOException {
+        if (input == null) {
+            throw new IOException("Image not readable");
+        }
+        int orientation = exifOrientation(input);
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IOException("Unsupported image format");
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, true, true);
+            int longEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+            ImageReadParam param = reader.getDefaultReadParam();
+            // Drop pixels while decoding, down to twice the largest variant; the resize does the rest
+            int step = Math.max(1, longEdge / (2 * Variant.FULL.maxEdge));
+            if (step > 1) {
+                param.setSourceSubsampling(step, step, 0, 0);
+            }
+            BufferedImage current = reader.read(0, param);
+
+            Map<Variant, byte[]> variants = new EnumMap<>(Variant.class);
+            for (Variant variant : Variant.values()) {
+                current = scale(current, variant.maxEdge);
+                variants.put(variant, encode(orient(current, orientation), variant.quality));
+            }
+            return variants;
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /** Pixel size of an encoded image, read from its header without decoding the pixels. */
+    public static Dimension size(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Size of a width x height image once scaled to fit within maxEdge, as {@link #scale} does it. */
+    public static Dimension fit(int width, int height, int maxEdge) {
+        double ratio = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        return new Dimension(Math.max(1, (int) Math.round(width * ratio)), Math.max(1, (int) Math.round(height * ratio)));
+    }
+
+    /** Fits the image within maxEdge and flattens it to opaque RGB (transparency becomes white). */
+    static BufferedImage scale(BufferedImage source, int maxEdge) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        Dimension target = fit(width, height, maxEdge);
+        int targetWidth = target.width;
+        int targetHeight = target.height;
+        if (targetWidth == width && targetHeight == height && source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+
+        BufferedImage current = source;
+        do {
+            // Bilinear sampling only looks at neighbouring pixels, so halve at most per pass to avoid aliasing
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /** Applies an EXIF orientation (1-8) so the pixels are upright once the tag is gone. */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.scale(-1, 1); transform.translate(-width, 0); }
+            case 3 -> { transform.translate(width, height); transform.rotate(Math.PI); }
+            case 4 -> { transform.scale(1, -1); transform.translate(0, -height); }
+            case 5 -> { transform.rotate(-Math.PI / 2); transform.scale(-1, 1); }
+            case 6 -> { transform.translate(height, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> {
+                transform.scale(-1, 1);
+                transform.translate(-height, 0);
+                transform.translate(0, width);
+                transform.rotate(3 * Math.PI / 2);
+            }
+            default -> { transform.translate(0, width); transform.rotate(3 * Math.PI / 2); }
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            // No metadata is passed, so only a bare JFIF header is written
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Orientation tag from a JPEG's EXIF segment, 1 (upright) when there is none. Walks the
+     * marker segments up to the image data rather than asking ImageIO for metadata, which
+     * rejects the common camera layout of APP1 (EXIF) ahead of APP0 (JFIF).
+     */
+    static int exifOrientation(ImageInputStream input) throws IOException {
+        input.mark();
+        try {
+            if (input.readUnsignedShort() != SOI) {
+                return 1;
+            }
+            while (true) {
+                int marker = input.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == SOS) {
+                    return 1;
+                }
+                int length = input.readUnsignedShort() - 2;
+                if (marker == APP1 && length >= 14) {
+                    byte[] segment = new byte[length];
+                    input.readFully(segment);
+                    int orientation = exifOrientation(segment);
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                } else {
+                    input.skipBytes(length);
+                }
+            }
+        } catch (EOFException e) {
+            return 1;
+        } finally {
+            input.reset();
+        }
+    }
+
+    /** Reads tag 0x0112 from IFD0 of an APP1 payload ("Exif\0\0" + TIFF); 0 when absent. */
+    static int exifOrientation(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 0;
+        }
+        int tiff = 6;
+        boolean littleEndian = segment[tiff] == 'I';
+        long ifd = tiff + (readInt(segment, tiff + 4, littleEndian) & 0xFFFFFFFFL);
+        if (ifd + 2 > segment.length) {
+            return 0;
+        }
+        int entries = readShort(segment, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > segment.length) {
+                break;
+            }
+            if (readShort(segment, entry, littleEndian) == ORIENTATION_TAG) {
+                int value = readShort(segment, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static int readShort(byte[] bytes, int offset, boolean littleEndian) {
+        int a = bytes[offset] & 0xFF;
+        int b = bytes[offset + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static int readInt(byte[] bytes, int offset, boolean littleEndian) {
+        int high = readShort(bytes, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(bytes, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
@@ -0,0 +1,63 @@
+package com.linka.backend.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue drained in order by one daemon thread, for high-rate notifications that must
+ * not hold up the thread that raises them. {@link #offer} never blocks: when the queue is
+ * full the item is dropped and counted, so only use this where losing an occasional item is
+ * acceptable.
+ */
+public class SerialQueue<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerialQueue.class);
+
+    private final String name;
+    private final Consumer<T> consumer;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public SerialQueue(String name, int capacity, Consumer<T> consumer) {
+        this.name = name;
+        this.consumer = consumer;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity),
+            task -> {
+                Thread thread = new Thread(task, name);
+                thread.setDaemon(true);
+                return thread;
+            },
+            (task, pool) -> dropped.incrementAndGet());
+    }
+
+    public void offer(T item) {
+        executor.execute(() -> {
+            try {
+                consumer.accept(item);
+            } catch (RuntimeException e) {
+                logger.warn("{} failed to apply {}: {}", name, item, e.getMessage());
+            }
+        });
+    }
+
+    /** Items discarded because the queue was full. */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /** Stops accepting items and waits briefly for the queued ones to drain. */
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            logger.warn("{} shut down with {} items still queued", name, executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+}
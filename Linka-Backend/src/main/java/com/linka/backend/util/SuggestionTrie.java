@@ -0,0 +1,186 @@
+package com.linka.backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Weighted prefix trie for autocomplete.
+ *
+ * Every node caches the top {@code k} completions below it, so a lookup costs one walk down
+ * the prefix plus copying at most {@code k} entries, independent of how many terms share the
+ * prefix. Children are kept in sorted parallel arrays to stay compact.
+ *
+ * Writes must be serialized by the caller. Reads are lock-free: writers only ever publish
+ * freshly built, immutable state through volatile fields (a node's keys and children together,
+ * in one write), so a concurrent reader sees either the old or the new state of a node.
+ */
+public class SuggestionTrie {
+
+    private final int k;
+    private final Node root = new Node();
+    private int nodeCount = 1;
+    private int termCount;
+    private long charCount;
+
+    public SuggestionTrie(int k) {
+        this.k = k;
+    }
+
+    /** Inserts or replaces a term; a weight of zero or less removes it. */
+    public void put(String key, String text, String type, long weight) {
+        put(key, text, type, weight, true);
+    }
+
+    /**
+     * Inserts a term without maintaining the cached top-k lists. For bulk loads: call
+     * {@link #computeTopK()} once after the last term instead of paying for a path update
+     * on every insert.
+     */
+    public void load(String key, String text, String type, long weight) {
+        put(key, text, type, weight, false);
+    }
+
+    public void computeTopK() {
+        computeTopK(root);
+    }
+
+    private void computeTopK(Node node) {
+        for (Node child : node.branches.children) {
+            computeTopK(child);
+        }
+        node.recomputeTop(k);
+    }
+
+    private void put(String key, String text, String type, long weight, boolean updateTopK) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                if (weight <= 0) {
+                    return;
+                }
+                child = node.addChild(key.charAt(i));
+                nodeCount++;
+            }
+            node = child;
+            path[i + 1] = node;
+        }
+
+        boolean existed = node.terminal != null;
+        if (weight > 0) {
+            node.terminal = new Suggestion(text, type, weight);
+            if (!existed) {
+                termCount++;
+                charCount += text.length();
+            }
+        } else if (existed) {
+            charCount -= node.terminal.getText().length();
+            node.terminal = null;
+            termCount--;
+        } else {
+            return;
+        }
+
+        for (int i = path.length - 1; updateTopK && i >= 0; i--) {
+            path[i].recomputeTop(k);
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        Suggestion[] top = node.top;
+        return Arrays.asList(top).subList(0, Math.min(limit, top.length));
+    }
+
+    public int getNodeCount() { return nodeCount; }
+    public int getTermCount() { return termCount; }
+
+    /**
+     * Rough retained size: node objects with their child and top-k arrays, plus the
+     * suggestion objects and their strings. Meant for trend monitoring, not exact accounting.
+     */
+    public long estimateMemoryBytes() {
+        long nodes = (long) nodeCount * (16 + 3 * 4 + 16 + 16 + 2 + 16 + 4 + 16 + 4 * k);
+        long terms = (long) termCount * (16 + 4 + 4 + 8 + 24 + 16) + charCount * 2;
+        return nodes + terms;
+    }
+
+    public static class Suggestion {
+        private final String text;
+        private final String type;
+        private final long weight;
+
+        public Suggestion(String text, String type, long weight) {
+            this.text = text;
+            this.type = type;
+            this.weight = weight;
+        }
+
+        public String getText() { return text; }
+        public String getType() { return type; }
+        public long getWeight() { return weight; }
+    }
+
+    private static final Suggestion[] EMPTY = new Suggestion[0];
+
+    /** Sorted child keys and their nodes, index-aligned; never modified once published. */
+    private record Branches(char[] keys, Node[] children) {
+        static final Branches NONE = new Branches(new char[0], new Node[0]);
+    }
+
+    private static final class Node {
+        volatile Branches branches = Branches.NONE;
+        volatile Suggestion terminal;
+        volatile Suggestion[] top = EMPTY;
+
+        Node child(char c) {
+            Branches b = branches;
+            int i = Arrays.binarySearch(b.keys, c);
+            return i >= 0 ? b.children[i] : null;
+        }
+
+        Node addChild(char c) {
+            Branches b = branches;
+            char[] ks = b.keys;
+            Node[] cs = b.children;
+            int pos = -(Arrays.binarySearch(ks, c) + 1);
+            char[] newKeys = new char[ks.length + 1];
+            Node[] newChildren = new Node[cs.length + 1];
+            System.arraycopy(ks, 0, newKeys, 0, pos);
+            System.arraycopy(cs, 0, newChildren, 0, pos);
+            newKeys[pos] = c;
+            Node child = new Node();
+            newChildren[pos] = child;
+            System.arraycopy(ks, pos, newKeys, pos + 1, ks.length - pos);
+            System.arraycopy(cs, pos, newChildren, pos + 1, cs.length - pos);
+            // One volatile write, so readers never pair keys with children of another version
+            branches = new Branches(newKeys, newChildren);
+            return child;
+        }
+
+        void recomputeTop(int k) {
+            List<Suggestion> candidates = new ArrayList<>();
+            if (terminal != null) {
+                candidates.add(terminal);
+            }
+            for (Node child : branches.children) {
+                Collections.addAll(candidates, child.top);
+            }
+            candidates.sort((a, b) -> Long.compare(b.weight, a.weight));
+            top = candidates.subList(0, Math.min(k, candidates.size())).toArray(EMPTY);
+        }
+    }
+}
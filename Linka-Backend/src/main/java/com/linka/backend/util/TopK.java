@@ -0,0 +1,85 @@
+package com.linka.backend.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Bounded set of the {@code k} highest-scoring ids.
+ *
+ * Offering is O(log k). The structure is exact as long as scores never decrease, because then
+ * an id that was evicted or never admitted can only come back by being offered with a higher
+ * score. After {@link #remove} the caller must re-offer the remaining candidates to refill the
+ * freed slot. Not thread-safe.
+ */
+public class TopK {
+
+    private final int k;
+    private final TreeSet<Entry> entries = new TreeSet<>();
+    private final Map<Long, Entry> byId = new HashMap<>();
+
+    public TopK(int k) {
+        this.k = k;
+    }
+
+    /** Inserts or re-scores an id; returns whether it is in the top k afterwards. */
+    public boolean offer(long id, double score) {
+        Entry existing = byId.remove(id);
+        if (existing != null) {
+            entries.remove(existing);
+        } else if (entries.size() >= k && compare(score, id, entries.first()) <= 0) {
+            return false;
+        }
+        Entry entry = new Entry(id, score);
+        entries.add(entry);
+        byId.put(id, entry);
+        if (entries.size() > k) {
+            byId.remove(entries.pollFirst().id);
+        }
+        return byId.containsKey(id);
+    }
+
+    public boolean remove(long id) {
+        Entry entry = byId.remove(id);
+        return entry != null && entries.remove(entry);
+    }
+
+    public boolean contains(long id) {
+        return byId.containsKey(id);
+    }
+
+    public void clear() {
+        entries.clear();
+        byId.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Ids from highest to lowest score, at most {@code limit} of them. */
+    public List<Long> top(int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, entries.size()));
+        Iterator<Entry> it = entries.descendingIterator();
+        while (it.hasNext() && ids.size() < limit) {
+            ids.add(it.next().id);
+        }
+        return ids;
+    }
+
+    private static int compare(double score, long id, Entry other) {
+        int cmp = Double.compare(score, other.score);
+        // Ties go to the newer (higher) id
+        return cmp != 0 ? cmp : Long.compare(id, other.id);
+    }
+
+    private record Entry(long id, double score) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            return compare(score, id, other);
+        }
+    }
+}
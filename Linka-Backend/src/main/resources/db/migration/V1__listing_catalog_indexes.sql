@@ -0,0 +1,30 @@
+-- Composite indexes for the listing, category and user query shapes.
+-- Mirrors the @Table(indexes = ...) declarations on the entities; QueryPlanTest
+-- fails if a repository query stops being served by one of them.
+
+-- Feeds ordered by newest first, with the id tiebreaker used by keyset paging
+CREATE INDEX IF NOT EXISTS idx_listings_status_created ON listings (status, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_listings_category_status_created ON listings (category_id, status, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_listings_seller_status_created ON listings (seller_id, status, created_at, id);
+
+-- Price range filter, featured rail and the expiry sweeps
+CREATE INDEX IF NOT EXISTS idx_listings_status_price ON listings (status, price);
+CREATE INDEX IF NOT EXISTS idx_listings_status_featured ON listings (status, is_featured, featured_until);
+CREATE INDEX IF NOT EXISTS idx_listings_status_expires ON listings (status, expires_at);
+CREATE INDEX IF NOT EXISTS idx_listings_status_featured_until ON listings (status, featured_until);
+
+-- Incremental read-model refresh
+CREATE INDEX IF NOT EXISTS idx_listings_updated ON listings (updated_at);
+
+CREATE INDEX IF NOT EXISTS idx_categories_active_sort ON categories (is_active, sort_order);
+CREATE INDEX IF NOT EXISTS idx_categories_parent_active_sort ON categories (parent_category_id, is_active, sort_order);
+CREATE INDEX IF NOT EXISTS idx_categories_active_items ON categories (is_active, item_count);
+CREATE INDEX IF NOT EXISTS idx_categories_updated ON categories (updated_at);
+
+CREATE INDEX IF NOT EXISTS idx_users_created ON users (created_at);
+CREATE INDEX IF NOT EXISTS idx_users_last_login ON users (last_login);
+CREATE INDEX IF NOT EXISTS idx_users_rating ON users (rating_average, rating_count);
+
+-- Postgres does not index foreign key columns on its own
+CREATE INDEX IF NOT EXISTS idx_reviews_reviewer ON reviews (reviewer_id);
+CREATE INDEX IF NOT EXISTS idx_reviews_reviewee ON reviews (reviewee_id);
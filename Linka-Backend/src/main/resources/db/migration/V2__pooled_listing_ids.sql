@@ -0,0 +1,13 @@
+-- Listings and their attributes take ids from pooled sequences instead of IDENTITY columns,
+-- so Hibernate can send their inserts as JDBC batches. The increment must equal the
+-- allocationSize on the entities (50): Hibernate reserves ids (value - 49) .. value.
+
+CREATE SEQUENCE IF NOT EXISTS listings_seq INCREMENT BY 50;
+SELECT setval('listings_seq', (SELECT COALESCE(MAX(id), 0) FROM listings) + 50, false);
+ALTER TABLE listings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE listings ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS listing_attributes_seq INCREMENT BY 50;
+SELECT setval('listing_attributes_seq', (SELECT COALESCE(MAX(id), 0) FROM listing_attributes) + 50, false);
+ALTER TABLE listing_attributes ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE listing_attributes ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,13 @@
+-- Resized copies of listing photos written by the image pipeline, plus the card-sized
+-- copy of the main image that list endpoints show.
+
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS card_image VARCHAR(255);
+
+CREATE TABLE IF NOT EXISTS listing_image_variants (
+    listing_id BIGINT NOT NULL REFERENCES listings (id),
+    full_url VARCHAR(255) NOT NULL,
+    card_url VARCHAR(255) NOT NULL,
+    thumb_url VARCHAR(255) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_listing_image_variants_listing ON listing_image_variants (listing_id);
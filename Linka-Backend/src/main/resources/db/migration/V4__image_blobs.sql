@@ -0,0 +1,11 @@
+-- Content-addressed image storage: one row per distinct file (SHA-256 of its bytes) with the
+-- number of listing images that point at it. Files uploaded before this live on under
+-- uploads/listings/{id} and are not counted.
+
+CREATE TABLE IF NOT EXISTS image_blobs (
+    hash VARCHAR(64) PRIMARY KEY,
+    extension VARCHAR(10) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
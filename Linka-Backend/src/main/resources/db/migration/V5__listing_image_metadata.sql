@@ -0,0 +1,13 @@
+-- Size, average colour and BlurHash of processed listing photos, so clients can lay out and
+-- paint a placeholder before the image loads. Photos processed before this keep NULLs.
+
+ALTER TABLE listing_image_variants ADD COLUMN IF NOT EXISTS width INTEGER;
+ALTER TABLE listing_image_variants ADD COLUMN IF NOT EXISTS height INTEGER;
+ALTER TABLE listing_image_variants ADD COLUMN IF NOT EXISTS size_bytes BIGINT;
+ALTER TABLE listing_image_variants ADD COLUMN IF NOT EXISTS dominant_color VARCHAR(7);
+ALTER TABLE listing_image_variants ADD COLUMN IF NOT EXISTS blur_hash VARCHAR(64);
+
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS card_width INTEGER;
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS card_height INTEGER;
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS card_color VARCHAR(7);
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS card_blur_hash VARCHAR(64);
@@ -0,0 +1,15 @@
+-- Resumable image uploads in progress, and finished ones not yet claimed by a listing. The
+-- received bytes live in {upload-dir}/.incoming/sessions/{id}.part until finalized.
+
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    owner_id BIGINT NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    received_bytes BIGINT NOT NULL,
+    sha256 VARCHAR(64),
+    image_url VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_expires ON upload_sessions (expires_at);
@@ -0,0 +1,3 @@
+-- Upload sessions are counted per owner to enforce the per-user session and byte quotas.
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_owner ON upload_sessions (owner_id, expires_at);
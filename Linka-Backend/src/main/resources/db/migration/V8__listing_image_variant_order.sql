@@ -0,0 +1,11 @@
+-- Variants are kept in the order of the listing's images. Rows written before this had no
+-- order; number them by URL so each listing gets distinct positions from 0.
+
+ALTER TABLE listing_image_variants ADD COLUMN IF NOT EXISTS variant_order INTEGER;
+
+UPDATE listing_image_variants v
+SET variant_order = (
+    SELECT COUNT(*) FROM listing_image_variants w
+    WHERE w.listing_id = v.listing_id AND w.full_url < v.full_url
+)
+WHERE variant_order IS NULL;
@@ -0,0 +1,183 @@
+package com.linka.backend.repository;
+
+import com.linka.backend.entity.Category;
+import com.linka.backend.entity.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every {@code @Query} of the listing, category and user repositories, captures the SQL
+ * Hibernate sends, and fails if H2's {@code EXPLAIN} shows a full table scan, so a dropped
+ * index or a query that stops matching one is caught before it reaches production.
+ */
+@SpringBootTest(properties = {
+    "linka.search.index-dir=target/query-plan-index-${random.uuid}",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.linka.backend.repository.QueryPlanTest$Recorder"
+})
+@Transactional
+class QueryPlanTest {
+
+    /**
+     * Queries that cannot use a B-tree index by design, each with the reason. Everything else
+     * must not scan.
+     */
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+        "ListingRepository.findByLocation", "substring LIKE; served by the search index instead",
+        "ListingRepository.findByLocationAfter", "substring LIKE; served by the search index instead",
+        "CategoryRepository.searchActiveCategories", "substring LIKE over a table of a few dozen rows",
+        "UserRepository.searchUsers", "substring LIKE, admin only"
+    );
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void queriesUseIndexes() throws Exception {
+        List<String> failures = new ArrayList<>();
+        check(ListingRepository.class, listingRepository, failures);
+        check(CategoryRepository.class, categoryRepository, failures);
+        check(UserRepository.class, userRepository, failures);
+        assertTrue(failures.isEmpty(), "Full table scans:\n" + String.join("\n", failures));
+    }
+
+    @Test
+    void migrationDeclaresEntityIndexes() throws Exception {
+        Set<String> migrated = new TreeSet<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/V*.sql")) {
+            String migration = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            Matcher matcher = Pattern.compile("CREATE INDEX IF NOT EXISTS (\\w+)").matcher(migration);
+            while (matcher.find()) {
+                migrated.add(matcher.group(1).toLowerCase());
+            }
+        }
+
+        Set<String> declared = new TreeSet<>(jdbcTemplate.queryForList(
+            "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME LIKE 'IDX\\_%'", String.class));
+        assertEquals(declared, migrated);
+    }
+
+    private void check(Class<?> repositoryType, Object repository, List<String> failures) throws Exception {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : repositoryType.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Query.class)) {
+                methods.add(method);
+            }
+        }
+        methods.sort(Comparator.comparing(Method::getName));
+
+        for (Method method : methods) {
+            String name = repositoryType.getSimpleName() + "." + method.getName();
+            Recorder.STATEMENTS.clear();
+            method.invoke(repository, argumentsFor(method));
+            List<String> statements = new ArrayList<>(Recorder.STATEMENTS);
+            assertTrue(!statements.isEmpty(), name + " ran no SQL");
+
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (plan.contains(".tableScan") && !ALLOWED_SCANS.containsKey(name)) {
+                    failures.add(name + ":\n" + plan);
+                }
+            }
+        }
+    }
+
+    private Object[] argumentsFor(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == Long.class || type == long.class) {
+                args[i] = 1L;
+            } else if (type == int.class || type == Integer.class) {
+                args[i] = 10;
+            } else if (type == String.class) {
+                args[i] = "a";
+            } else if (type == BigDecimal.class) {
+                args[i] = BigDecimal.TEN;
+            } else if (type == LocalDateTime.class) {
+                args[i] = LocalDateTime.now();
+            } else if (type == Pageable.class) {
+                args[i] = PageRequest.of(1, 10);
+            } else if (Collection.class.isAssignableFrom(type)) {
+                args[i] = List.of(1L, 2L);
+            } else if (type.isEnum()) {
+                args[i] = type.getEnumConstants()[0];
+            } else if (type == User.class) {
+                args[i] = userRepository.findAll().get(0);
+            } else if (type == Category.class) {
+                args[i] = categoryRepository.findAll().get(0);
+            } else {
+                throw new IllegalStateException("No sample argument for " + type + " in " + method);
+            }
+        }
+        return args;
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    /** Collects the SQL of every statement Hibernate prepares. */
+    public static class Recorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
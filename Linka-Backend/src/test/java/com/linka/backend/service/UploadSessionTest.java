@@ -0,0 +1,297 @@
+package com.linka.backend.service;
+
+import com.linka.backend.entity.ImageBlob;
+import com.linka.backend.entity.UploadSession;
+import com.linka.backend.repository.ImageBlobRepository;
+import com.linka.backend.repository.UploadSessionRepository;
+import com.linka.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The resumable upload state machine in {@link ImageUploadService}: offsets, what a failed
+ * chunk leaves behind, completion, quotas, and who gets the blob reference when a claim and
+ * the expiry sweep meet. Each test uses its own owner id so quotas do not carry over.
+ */
+@SpringBootTest(properties = {
+    "linka.images.upload.max-sessions-per-user=3",
+    "linka.images.upload.max-session-bytes-per-user=100000"
+})
+@AutoConfigureMockMvc
+class UploadSessionTest {
+
+    private static final AtomicLong OWNERS = new AtomicLong(1_000_000);
+    private static final AtomicLong COLOURS = new AtomicLong(0x102030);
+
+    @TempDir
+    static Path uploadDir;
+
+    @TempDir
+    static Path indexDir;
+
+    // A context of its own, so it must not share the search index or database of another one
+    @DynamicPropertySource
+    static void isolate(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploadDir + "/");
+        registry.add("linka.search.index-dir", () -> indexDir.toString());
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:upload-sessions");
+    }
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    @WithMockUser(username = "jane@example.com")
+    void wrongOffsetIsConflictCarryingTheCurrentOne() throws Exception {
+        Long owner = userRepository.findByEmail("jane@example.com").orElseThrow().getId();
+        byte[] image = image();
+        UploadSession session = imageUploadService.createUploadSession(owner, image.length, null);
+        imageUploadService.appendChunk(session.getId(), owner, 0, new ByteArrayInputStream(image, 0, 10), null);
+
+        mvc.perform(put("/api/uploads/sessions/" + session.getId())
+                .header("Upload-Offset", "0")
+                .content(Arrays.copyOfRange(image, 0, 10))
+                .with(csrf()))
+            .andExpect(status().isConflict())
+            .andExpect(header().string("Upload-Offset", "10"));
+        assertEquals(10, received(session));
+    }
+
+    @Test
+    void rejectedChecksummedChunkIsCutBackOff() throws IOException {
+        Long owner = OWNERS.incrementAndGet();
+        byte[] image = image();
+        int half = image.length / 2;
+        UploadSession session = imageUploadService.createUploadSession(owner, image.length, null);
+        imageUploadService.appendChunk(session.getId(), owner, 0, new ByteArrayInputStream(image, 0, half), null);
+
+        byte[] rest = Arrays.copyOfRange(image, half, image.length);
+        assertThrows(IllegalArgumentException.class, () ->
+            imageUploadService.appendChunk(session.getId(), owner, half, new ByteArrayInputStream(rest), checksum(new byte[] {1})));
+        assertEquals(half, received(session));
+        assertEquals(half, Files.size(part(session)));
+
+        assertEquals(image.length, imageUploadService.appendChunk(session.getId(), owner, half, new ByteArrayInputStream(rest), checksum(rest)));
+    }
+
+    @Test
+    void interruptedUncheckedChunkKeepsWhatArrived() throws IOException {
+        Long owner = OWNERS.incrementAndGet();
+        byte[] image = image();
+        UploadSession session = imageUploadService.createUploadSession(owner, image.length, null);
+
+        assertEquals(7, imageUploadService.appendChunk(session.getId(), owner, 0, droppingAfter(image, 7), null));
+        assertEquals(7, received(session));
+        assertEquals(7, Files.size(part(session)));
+
+        // The same drop under a checksum keeps nothing, since the bytes cannot be verified
+        assertThrows(IOException.class, () ->
+            imageUploadService.appendChunk(session.getId(), owner, 7, droppingAfter(Arrays.copyOfRange(image, 7, image.length), 5), checksum(image)));
+        assertEquals(7, received(session));
+        assertEquals(7, Files.size(part(session)));
+    }
+
+    @Test
+    void wholeFileChecksumMismatchStartsOver() throws IOException {
+        Long owner = OWNERS.incrementAndGet();
+        byte[] image = image();
+        UploadSession session = imageUploadService.createUploadSession(owner, image.length, sha256Hex(new byte[] {1}));
+        imageUploadService.appendChunk(session.getId(), owner, 0, new ByteArrayInputStream(image), null);
+
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.completeUploadSession(session.getId(), owner));
+        assertEquals(0, received(session));
+        assertFalse(Files.exists(part(session)));
+        assertTrue(imageBlobRepository.findById(sha256Hex(image)).isEmpty());
+    }
+
+    @Test
+    void completingTwiceStoresOneReference() throws IOException {
+        Long owner = OWNERS.incrementAndGet();
+        byte[] image = image();
+        UploadSession session = imageUploadService.createUploadSession(owner, image.length, sha256Hex(image));
+        assertThrows(IllegalStateException.class, () -> imageUploadService.completeUploadSession(session.getId(), owner));
+        imageUploadService.appendChunk(session.getId(), owner, 0, new ByteArrayInputStream(image), null);
+
+        String imageUrl = imageUploadService.completeUploadSession(session.getId(), owner).getImageUrl();
+        assertEquals(imageUrl, imageUploadService.completeUploadSession(session.getId(), owner).getImageUrl());
+        assertEquals(1, blob(imageUrl).getRefCount());
+        assertTrue(Files.exists(blobFile(imageUrl)));
+        assertFalse(Files.exists(part(session)));
+        assertThrows(IllegalStateException.class, () ->
+            imageUploadService.appendChunk(session.getId(), owner, image.length, new ByteArrayInputStream(new byte[0]), null));
+    }
+
+    @Test
+    void quotasBoundOpenSessionsAndBytes() {
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.createUploadSession(OWNERS.incrementAndGet(), 0, null));
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.createUploadSession(OWNERS.incrementAndGet(), 5 * 1024 * 1024 + 1, null));
+
+        Long owner = OWNERS.incrementAndGet();
+        for (int i = 0; i < 3; i++) {
+            imageUploadService.createUploadSession(owner, 100, null);
+        }
+        assertThrows(IllegalStateException.class, () -> imageUploadService.createUploadSession(owner, 100, null));
+
+        Long other = OWNERS.incrementAndGet();
+        imageUploadService.createUploadSession(other, 60_000, null);
+        assertThrows(IllegalStateException.class, () -> imageUploadService.createUploadSession(other, 50_000, null));
+        imageUploadService.createUploadSession(other, 40_000, null);
+    }
+
+    @Test
+    void expiredSessionCannotBeClaimedAndTheSweepReleasesItsBlob() throws IOException {
+        Long owner = OWNERS.incrementAndGet();
+        UploadSession session = finished(owner);
+        String imageUrl = session.getImageUrl();
+        session.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        uploadSessionRepository.save(session);
+
+        List<String> ids = List.of(session.getId());
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.claimUploads(ids, owner));
+        assertEquals(1, blob(imageUrl).getRefCount());
+
+        imageUploadService.expireUploadSessions();
+        assertTrue(uploadSessionRepository.findById(session.getId()).isEmpty());
+        assertTrue(imageBlobRepository.findById(ImageUploadService.blobHash(imageUrl)).isEmpty());
+        assertFalse(Files.exists(blobFile(imageUrl)));
+    }
+
+    @Test
+    void claimedSessionIsLeftAloneByTheSweep() throws IOException {
+        Long owner = OWNERS.incrementAndGet();
+        UploadSession session = finished(owner);
+        assertEquals(List.of(session.getImageUrl()), imageUploadService.claimUploads(List.of(session.getId()), owner));
+
+        imageUploadService.expireUploadSessions();
+        assertEquals(1, blob(session.getImageUrl()).getRefCount());
+        assertTrue(Files.exists(blobFile(session.getImageUrl())));
+    }
+
+    @Test
+    void claimIsAllOrNothing() throws IOException {
+        Long owner = OWNERS.incrementAndGet();
+        UploadSession finished = finished(owner);
+        UploadSession open = imageUploadService.createUploadSession(owner, 100, null);
+
+        assertThrows(IllegalArgumentException.class, () ->
+            imageUploadService.claimUploads(List.of(finished.getId(), open.getId()), owner));
+        assertTrue(uploadSessionRepository.findById(finished.getId()).isPresent());
+        // Nor can someone else's upload be claimed
+        assertThrows(IllegalArgumentException.class, () ->
+            imageUploadService.claimUploads(List.of(finished.getId()), OWNERS.incrementAndGet()));
+        assertEquals(List.of(finished.getImageUrl()), imageUploadService.claimUploads(List.of(finished.getId()), owner));
+    }
+
+    private UploadSession finished(Long owner) throws IOException {
+        byte[] image = image();
+        UploadSession session = imageUploadService.createUploadSession(owner, image.length, null);
+        imageUploadService.appendChunk(session.getId(), owner, 0, new ByteArrayInputStream(image), null);
+        return imageUploadService.completeUploadSession(session.getId(), owner);
+    }
+
+    private long received(UploadSession session) {
+        return uploadSessionRepository.findById(session.getId()).orElseThrow().getReceivedBytes();
+    }
+
+    private ImageBlob blob(String imageUrl) {
+        return imageBlobRepository.findById(ImageUploadService.blobHash(imageUrl)).orElseThrow();
+    }
+
+    private static Path part(UploadSession session) {
+        return uploadDir.resolve(".incoming/sessions/" + session.getId() + ".part");
+    }
+
+    private static Path blobFile(String imageUrl) {
+        return uploadDir.resolve("blobs/" + imageUrl.substring(ImageUploadService.BLOB_URL_PREFIX.length()));
+    }
+
+    /** A small PNG of a colour no other test uses, so every test gets a blob of its own. */
+    private static byte[] image() throws IOException {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        int colour = (int) COLOURS.getAndAdd(0x050301);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                image.setRGB(x, y, colour + x * y);
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    /** A request body whose connection drops after {@code count} bytes. */
+    private static InputStream droppingAfter(byte[] bytes, int count) {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == count) {
+                    throw new IOException("Connection reset");
+                }
+                return bytes[position++] & 0xFF;
+            }
+        };
+    }
+
+    private static String checksum(byte[] bytes) {
+        return "sha256 " + Base64.getEncoder().encodeToString(sha256(bytes));
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256(bytes));
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
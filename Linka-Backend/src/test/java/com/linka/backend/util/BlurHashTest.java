@@ -0,0 +1,75 @@
+package com.linka.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.function.IntBinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks {@link BlurHash} against hashes from the reference algorithm (https://blurha.sh).
+ * The images are already within the 32px sample size, so they are hashed pixel for pixel.
+ */
+class BlurHashTest {
+
+    @Test
+    void solidBlackMatchesReference() {
+        assertEquals("L00000fQfQfQfQfQfQfQfQfQfQfQ", BlurHash.encode(image(32, 24, (x, y) -> 0)));
+    }
+
+    @Test
+    void gradientMatchesReference() {
+        BufferedImage gradient = image(32, 24, (x, y) -> rgb(x * 8, y * 10, (x + y) * 4));
+        assertEquals("LxH27b2kwzX5mAWYjuf7gKfkfQfj", BlurHash.encode(gradient));
+    }
+
+    @Test
+    void portraitUsesFourComponentsVertically() {
+        BufferedImage portrait = image(24, 32, (x, y) -> rgb(x < 12 ? 200 : 40, 90, 255 - y * 8));
+        String hash = BlurHash.encode(portrait);
+        assertEquals("T.H9-Y|xsUoTo3jtfVfRfQoOo2jt", hash);
+        assertEquals(hash, BlurHash.encode(portrait, 3, 4));
+    }
+
+    @Test
+    void landscapeUsesFourComponentsHorizontally() {
+        BufferedImage landscape = image(32, 24, (x, y) -> rgb(x * 8, y * 10, (x + y) * 4));
+        assertEquals(BlurHash.encode(landscape, 4, 3), BlurHash.encode(landscape));
+    }
+
+    @Test
+    void singleComponentHoldsOnlyTheAverageColour() {
+        String hash = BlurHash.encode(image(8, 8, (x, y) -> rgb(255, 0, 0)), 1, 1);
+        assertEquals(6, hash.length());
+        assertEquals("#ff0000", BlurHash.averageColor(hash));
+    }
+
+    @Test
+    void averageColorReadsTheDcComponent() {
+        assertEquals("#000000", BlurHash.averageColor("L00000fQfQfQfQfQfQfQfQfQfQfQ"));
+        assertEquals("#336699", BlurHash.averageColor(BlurHash.encode(image(16, 16, (x, y) -> rgb(0x33, 0x66, 0x99)))));
+    }
+
+    @Test
+    void rejectsComponentCountsOutsideOneToNine() {
+        BufferedImage image = image(4, 4, (x, y) -> 0);
+        assertThrows(IllegalArgumentException.class, () -> BlurHash.encode(image, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> BlurHash.encode(image, 4, 10));
+    }
+
+    private static BufferedImage image(int width, int height, IntBinaryOperator pixel) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, pixel.applyAsInt(x, y));
+            }
+        }
+        return image;
+    }
+
+    private static int rgb(int r, int g, int b) {
+        return (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,89 @@
+package com.linka.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    void splitsPlainFields() throws IOException {
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("1", "2", "3")), read("a,b,c\n1,2,3\n"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertEquals(List.of(List.of("", "b", ""), List.of("", "")), read(",b,\n,\n"));
+    }
+
+    @Test
+    void quotedFieldsHoldCommasQuotesAndLineBreaks() throws IOException {
+        assertEquals(List.of(List.of("a,b", "say \"hi\"", "two\r\nlines"), List.of("next")),
+            read("\"a,b\",\"say \"\"hi\"\"\",\"two\r\nlines\"\r\nnext\r\n"));
+    }
+
+    @Test
+    void emptyQuotedFieldIsNotABlankLine() throws IOException {
+        assertEquals(List.of(List.of(""), List.of("", "x")), read("\"\"\n\"\",x\n"));
+    }
+
+    @Test
+    void quoteInsideAnUnquotedFieldIsLiteral() throws IOException {
+        assertEquals(List.of(List.of("5\" screen", "b")), read("5\" screen,b\n"));
+    }
+
+    @Test
+    void acceptsCrlfLfAndBareCrLineEndings() throws IOException {
+        assertEquals(List.of(List.of("a"), List.of("b"), List.of("c"), List.of("d")), read("a\r\nb\nc\rd"));
+    }
+
+    @Test
+    void skipsBlankLines() throws IOException {
+        assertEquals(List.of(List.of("a"), List.of("b")), read("\r\n\na\r\n\r\n\nb\n\n"));
+    }
+
+    @Test
+    void lastRecordNeedsNoLineBreak() throws IOException {
+        assertEquals(List.of(List.of("a", "b")), read("a,b"));
+    }
+
+    @Test
+    void skipsLeadingByteOrderMark() throws IOException {
+        assertEquals(List.of(List.of("title", "price")), read("\uFEFFtitle,price\r\n"));
+        assertEquals(List.of(List.of("quoted")), read("\uFEFF\"quoted\"\n"));
+    }
+
+    @Test
+    void keepsByteOrderMarkAfterTheStart() throws IOException {
+        assertEquals(List.of(List.of("a"), List.of("\uFEFFb")), read("a\n\uFEFFb\n"));
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertNull(new CsvReader(new StringReader("")).next());
+        assertNull(new CsvReader(new StringReader("\uFEFF")).next());
+    }
+
+    @Test
+    void rejectsUnterminatedQuotedField() {
+        CsvReader reader = new CsvReader(new StringReader("a,\"open\nstill open"));
+        assertThrows(IOException.class, reader::next);
+    }
+
+    private static List<List<String>> read(String csv) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,219 @@
+package com.linka.backend.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Byte ranges, 416 and If-Range in {@link FileResponses}, against a ten byte file so every
+ * range can be checked against the exact bytes it should carry.
+ */
+class FileResponsesTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final Instant MODIFIED = Instant.parse("2024-05-01T10:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void writeFile() throws IOException {
+        file = dir.resolve("photo.jpg");
+        Files.writeString(file, CONTENT);
+        Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+    }
+
+    @Test
+    void sendsWholeFileWithoutRange() throws IOException {
+        MockHttpServletResponse response = send(get());
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, body(response));
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("image/jpeg", response.getContentType());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void sendsClosedRange() throws IOException {
+        MockHttpServletResponse response = send(get("bytes=2-5"));
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getContentLengthLong());
+        assertEquals("2345", body(response));
+    }
+
+    @Test
+    void sendsOpenAndSuffixRanges() throws IOException {
+        MockHttpServletResponse open = send(get("bytes=7-"));
+        assertEquals("bytes 7-9/10", open.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", body(open));
+
+        MockHttpServletResponse suffix = send(get("bytes=-3"));
+        assertEquals("bytes 7-9/10", suffix.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", body(suffix));
+    }
+
+    @Test
+    void clampsRangeEndToTheFile() throws IOException {
+        MockHttpServletResponse response = send(get("bytes=8-100"));
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 8-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("89", body(response));
+    }
+
+    @Test
+    void rangeStartingPastTheEndIsNotSatisfiable() throws IOException {
+        MockHttpServletResponse response = send(get("bytes=10-20"));
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("", body(response));
+    }
+
+    @Test
+    void anyRangeOfAnEmptyFileIsNotSatisfiable() throws IOException {
+        Files.write(file, new byte[0]);
+        MockHttpServletResponse response = send(get("bytes=0-"));
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */0", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void malformedOrMultipleRangesGetTheWholeFile() throws IOException {
+        for (String range : new String[] {"bytes=abc", "items=0-1", "bytes=0-1,4-5"}) {
+            MockHttpServletResponse response = send(get(range));
+            assertEquals(200, response.getStatus(), range);
+            assertEquals(CONTENT, body(response), range);
+        }
+    }
+
+    @Test
+    void ifRangeWithCurrentEtagSendsTheRange() throws IOException {
+        String eTag = send(get()).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = get("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, eTag);
+        MockHttpServletResponse response = send(request);
+        assertEquals(206, response.getStatus());
+        assertEquals("01", body(response));
+    }
+
+    @Test
+    void ifRangeWithStaleEtagSendsTheWholeFile() throws IOException {
+        MockHttpServletRequest request = get("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"something-else\"");
+        MockHttpServletResponse response = send(request);
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, body(response));
+    }
+
+    @Test
+    void ifRangeWithWeakEtagSendsTheWholeFile() throws IOException {
+        String eTag = send(get()).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = get("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/" + eTag);
+        assertEquals(200, send(request).getStatus());
+    }
+
+    @Test
+    void ifRangeDateMustMatchLastModified() throws IOException {
+        MockHttpServletRequest current = get("bytes=0-1");
+        current.addHeader(HttpHeaders.IF_RANGE, httpDate(MODIFIED));
+        assertEquals(206, send(current).getStatus());
+
+        MockHttpServletRequest stale = get("bytes=0-1");
+        stale.addHeader(HttpHeaders.IF_RANGE, httpDate(MODIFIED.minusSeconds(60)));
+        MockHttpServletResponse response = send(stale);
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, body(response));
+    }
+
+    @Test
+    void ifNoneMatchWinsOverRange() throws IOException {
+        String eTag = send(get()).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = get("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        MockHttpServletResponse response = send(request);
+        assertEquals(304, response.getStatus());
+        assertEquals("", body(response));
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws IOException {
+        MockHttpServletRequest request = get("bytes=2-5");
+        request.setMethod("HEAD");
+        MockHttpServletResponse response = send(request);
+        assertEquals(206, response.getStatus());
+        assertEquals(4, response.getContentLengthLong());
+        assertEquals("", body(response));
+    }
+
+    @Test
+    void handsRangeToSendfileWhenSupported() throws IOException {
+        MockHttpServletRequest request = get("bytes=2-5");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = send(request);
+        assertEquals(206, response.getStatus());
+        assertEquals("", body(response));
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(2L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        // Tomcat's end is exclusive
+        assertEquals(6L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void contentAddressedNamesAreImmutable() throws IOException {
+        file = dir.resolve("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef_thumb.jpg");
+        Files.writeString(file, CONTENT);
+        MockHttpServletResponse response = send(get());
+        assertTrue(response.getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+        assertEquals("\"0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef_thumb\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void missingFileIsNotFound() throws IOException {
+        file = dir.resolve("missing.jpg");
+        assertEquals(404, send(get()).getStatus());
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/uploads/photo.jpg");
+    }
+
+    private static MockHttpServletRequest get(String range) {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, range);
+        return request;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileResponses.send(file, request, response);
+        return response;
+    }
+
+    private static String body(MockHttpServletResponse response) {
+        return new String(response.getContentAsByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,54 @@
+package com.linka.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Accept-Encoding negotiation in {@link HttpCaching#acceptsGzip}: q-values decide, not the
+ * mere presence of the word "gzip".
+ */
+class HttpCachingTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "gzip",
+        "GZIP",
+        "deflate, gzip",
+        "gzip;q=0.5, br",
+        "br;q=1.0, gzip ; q=0.001",
+        "x-gzip",
+        "*",
+        "br, *;q=0.1",
+        "gzip;level=9"
+    })
+    void acceptsGzip(String acceptEncoding) {
+        assertTrue(HttpCaching.acceptsGzip(acceptEncoding), acceptEncoding);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "identity",
+        "br, deflate",
+        "gzip;q=0",
+        "gzip;q=0.000",
+        "gzip;q=0, *",
+        "*, gzip;q=0",
+        "*;q=0",
+        "gzip;q=",
+        "gzip;q=high",
+        "gzipped"
+    })
+    void refusesGzip(String acceptEncoding) {
+        assertFalse(HttpCaching.acceptsGzip(acceptEncoding), acceptEncoding);
+    }
+
+    @Test
+    void missingHeaderMeansNoGzip() {
+        assertFalse(HttpCaching.acceptsGzip(null));
+    }
+}
@@ -0,0 +1,184 @@
+package com.linka.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageMetadataTest {
+
+    private static final String SECRET = "GPS 0.3476N 32.5825E SerialNo 12345";
+
+    @Test
+    void jpegLosesExifXmpCommentsAndTrailingImagesButKeepsOrientation() throws IOException {
+        byte[] jpeg = ImageResizer.encode(new BufferedImage(16, 8, BufferedImage.TYPE_INT_RGB), 0.9f);
+        ByteArrayOutputStream tagged = new ByteArrayOutputStream();
+        tagged.write(jpeg, 0, 2);
+        segment(tagged, 0xE1, concat(ImageMetadata.orientationExif(6), ascii(SECRET)));
+        segment(tagged, 0xE1, ascii("http://ns.adobe.com/xap/1.0/\0" + SECRET));
+        segment(tagged, 0xED, ascii("Photoshop 3.0\0" + SECRET));
+        segment(tagged, 0xFE, ascii(SECRET));
+        tagged.write(jpeg, 2, jpeg.length - 2);
+        // A second picture appended after the first one ends, as in an MPO
+        tagged.write(new byte[] {(byte) 0xFF, (byte) 0xD8});
+        segment(tagged, 0xE1, ascii("Exif\0\0" + SECRET));
+
+        byte[] stripped = strip(tagged.toByteArray(), "jpg");
+        assertFalse(contains(stripped, ascii(SECRET)));
+        assertFalse(contains(stripped, ascii("http://ns.adobe.com")));
+        assertEquals(6, ImageResizer.exifOrientation(new MemoryCacheImageInputStream(new ByteArrayInputStream(stripped))));
+        assertEquals((byte) 0xD9, stripped[stripped.length - 1]);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(stripped));
+        assertNotNull(decoded);
+        assertEquals(16, decoded.getWidth());
+    }
+
+    @Test
+    void jpegKeepsJfifAndIccProfile() throws IOException {
+        byte[] jpeg = ImageResizer.encode(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), 0.9f);
+        byte[] icc = ascii("ICC_PROFILE\0\1\1profile-bytes");
+        ByteArrayOutputStream tagged = new ByteArrayOutputStream();
+        tagged.write(jpeg, 0, 2);
+        segment(tagged, 0xE2, icc);
+        tagged.write(jpeg, 2, jpeg.length - 2);
+
+        byte[] stripped = strip(tagged.toByteArray(), "jpg");
+        assertTrue(contains(stripped, icc));
+        assertTrue(contains(stripped, ascii("JFIF")));
+    }
+
+    @Test
+    void jpegWithoutMetadataIsUnchanged() throws IOException {
+        byte[] jpeg = ImageResizer.encode(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), 0.9f);
+        assertArrayEquals(jpeg, strip(jpeg, "jpg"));
+    }
+
+    @Test
+    void truncatedJpegIsRejected() throws IOException {
+        byte[] jpeg = ImageResizer.encode(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), 0.9f);
+        assertThrows(IOException.class, () -> strip(Arrays.copyOf(jpeg, 30), "jpg"));
+        assertThrows(IOException.class, () -> strip(ascii("not a jpeg"), "jpg"));
+    }
+
+    @Test
+    void pngLosesTextExifAndTimeChunks() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", png);
+        byte[] plain = png.toByteArray();
+        // Insert the chunks right after IHDR (8 byte signature + 25 byte chunk)
+        ByteArrayOutputStream tagged = new ByteArrayOutputStream();
+        tagged.write(plain, 0, 33);
+        chunk(tagged, "tEXt", ascii("Comment\0" + SECRET));
+        chunk(tagged, "eXIf", concat(ascii("MM"), ascii(SECRET)));
+        chunk(tagged, "tIME", new byte[7]);
+        tagged.write(plain, 33, plain.length - 33);
+
+        byte[] stripped = strip(tagged.toByteArray(), "png");
+        assertFalse(contains(stripped, ascii(SECRET)));
+        assertArrayEquals(plain, stripped);
+    }
+
+    @Test
+    void webpLosesExifAndXmpChunksAndFlags() throws IOException {
+        byte[] vp8x = new byte[10];
+        vp8x[0] = 0x08 | 0x04 | 0x10;
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(ascii("WEBP"));
+        riffChunk(body, "VP8X", vp8x);
+        riffChunk(body, "VP8 ", new byte[] {1, 2, 3});
+        riffChunk(body, "EXIF", ascii(SECRET));
+        riffChunk(body, "XMP ", ascii(SECRET));
+        byte[] webp = riff(body.toByteArray());
+
+        byte[] stripped = strip(webp, "webp");
+        assertFalse(contains(stripped, ascii(SECRET)));
+        ByteBuffer header = ByteBuffer.wrap(stripped).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(stripped.length - 8, header.getInt(4));
+        // Only the unrelated alpha flag is left
+        assertEquals(0x10, stripped[20]);
+        assertTrue(contains(stripped, ascii("VP8 ")));
+    }
+
+    @Test
+    void gifIsCopiedAsIs() throws IOException {
+        byte[] gif = ascii("GIF89a-anything");
+        assertArrayEquals(gif, strip(gif, "gif"));
+    }
+
+    private static byte[] strip(byte[] image, String extension) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageMetadata.strip(new ByteArrayInputStream(image), out, extension);
+        return out.toByteArray();
+    }
+
+    private static void segment(ByteArrayOutputStream out, int marker, byte[] payload) {
+        out.write(0xFF);
+        out.write(marker);
+        out.write((payload.length + 2) >> 8);
+        out.write(payload.length + 2);
+        out.writeBytes(payload);
+    }
+
+    private static void chunk(ByteArrayOutputStream out, String type, byte[] data) {
+        byte[] typeAndData = concat(ascii(type), data);
+        CRC32 crc = new CRC32();
+        crc.update(typeAndData);
+        out.writeBytes(ByteBuffer.allocate(4).putInt(data.length).array());
+        out.writeBytes(typeAndData);
+        out.writeBytes(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    private static void riffChunk(ByteArrayOutputStream out, String type, byte[] data) {
+        out.writeBytes(ascii(type));
+        out.writeBytes(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(data.length).array());
+        out.writeBytes(data);
+        if (data.length % 2 == 1) {
+            out.write(0);
+        }
+    }
+
+    private static byte[] riff(byte[] body) {
+        ByteBuffer riff = ByteBuffer.allocate(8 + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        riff.put(ascii("RIFF")).putInt(body.length).put(body);
+        return riff.array();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] both = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return both;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean contains(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i + needle.length <= haystack.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package com.linka.backend.util;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of {@link ImageResizer} per worker thread, for sizing {@code linka.images.workers}.
+ * Not a unit test; run it directly:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.linka.backend.util.ImageResizerBenchmark -Dexec.args="4000 3000 10"
+ * </pre>
+ *
+ * Arguments are the source width and height (a 12 MP camera photo by default) and the seconds
+ * measured per thread count.
+ */
+public class ImageResizerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        byte[] photo = syntheticPhoto(width, height);
+        System.out.printf("source %dx%d, %d KB JPEG, %d cores%n", width, height, photo.length / 1024, cores);
+
+        // Warm up the JIT and the codecs before measuring
+        for (int i = 0; i < 5; i++) {
+            ImageResizer.render(photo);
+        }
+
+        System.out.println("threads  images/s  images/s/thread  ms/image");
+        for (int threads = 1; threads <= cores; threads = threads < cores ? Math.min(cores, threads * 2) : cores + 1) {
+            double perSecond = measure(photo, threads, seconds);
+            System.out.printf("%7d  %8.1f  %15.1f  %8.1f%n", threads, perSecond, perSecond / threads, 1000.0 * threads / perSecond);
+        }
+    }
+
+    private static double measure(byte[] photo, int threads, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger done = new AtomicInteger();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        ImageResizer.render(photo);
+                        done.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return done.get() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /** Smooth gradients plus sensor-like noise, so the JPEG is about as hard to code as a real photo. */
+    private static byte[] syntheticPhoto(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (255 * x / width + random.nextInt(24)) & 0xFF;
+                int g = (255 * y / height + random.nextInt(24)) & 0xFF;
+                int b = (128 + (int) (64 * Math.sin(x / 40.0) * Math.cos(y / 55.0)) + random.nextInt(24)) & 0xFF;
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,171 @@
+package com.linka.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * EXIF orientation handling in {@link ImageResizer}: every orientation must come out upright,
+ * and a damaged APP1 segment must read as "no orientation" rather than throw.
+ */
+class ImageResizerTest {
+
+    private static final int WIDTH = 3;
+    private static final int HEIGHT = 2;
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4, 5, 6, 7, 8})
+    void orientMovesEveryPixelWhereTheTagSays(int orientation) {
+        BufferedImage stored = numbered();
+        BufferedImage upright = ImageResizer.orient(stored, orientation);
+
+        boolean swap = orientation >= 5;
+        assertEquals(swap ? HEIGHT : WIDTH, upright.getWidth());
+        assertEquals(swap ? WIDTH : HEIGHT, upright.getHeight());
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int[] at = switch (orientation) {
+                    case 2 -> new int[] {WIDTH - 1 - x, y};
+                    case 3 -> new int[] {WIDTH - 1 - x, HEIGHT - 1 - y};
+                    case 4 -> new int[] {x, HEIGHT - 1 - y};
+                    case 5 -> new int[] {y, x};
+                    case 6 -> new int[] {HEIGHT - 1 - y, x};
+                    case 7 -> new int[] {HEIGHT - 1 - y, WIDTH - 1 - x};
+                    default -> new int[] {y, WIDTH - 1 - x};
+                };
+                assertEquals(stored.getRGB(x, y), upright.getRGB(at[0], at[1]),
+                    "orientation " + orientation + " pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 9})
+    void orientLeavesUprightAndUnknownTagsAlone(int orientation) {
+        BufferedImage stored = numbered();
+        assertSame(stored, ImageResizer.orient(stored, orientation));
+    }
+
+    @Test
+    void readsOrientationInEitherByteOrder() {
+        assertEquals(6, ImageResizer.exifOrientation(app1(ByteOrder.BIG_ENDIAN, 6)));
+        assertEquals(8, ImageResizer.exifOrientation(app1(ByteOrder.LITTLE_ENDIAN, 8)));
+    }
+
+    @Test
+    void ignoresOutOfRangeOrientationValues() {
+        assertEquals(0, ImageResizer.exifOrientation(app1(ByteOrder.BIG_ENDIAN, 9)));
+    }
+
+    @Test
+    void ignoresSegmentsThatAreNotExif() {
+        byte[] segment = app1(ByteOrder.BIG_ENDIAN, 6);
+        segment[0] = 'J';
+        assertEquals(0, ImageResizer.exifOrientation(segment));
+        assertEquals(0, ImageResizer.exifOrientation("Exif\0\0II".getBytes()));
+    }
+
+    @Test
+    void ignoresIfdOffsetsPastTheSegment() {
+        byte[] segment = app1(ByteOrder.BIG_ENDIAN, 6);
+        ByteBuffer.wrap(segment).order(ByteOrder.BIG_ENDIAN).putInt(10, 0x7FFFFFF0);
+        assertEquals(0, ImageResizer.exifOrientation(segment));
+        // An unsigned offset above 2^31 must not wrap around to a negative index
+        ByteBuffer.wrap(segment).order(ByteOrder.BIG_ENDIAN).putInt(10, 0xFFFFFFF8);
+        assertEquals(0, ImageResizer.exifOrientation(segment));
+    }
+
+    @Test
+    void ignoresEntriesCutOffByTheSegmentEnd() {
+        byte[] whole = app1(ByteOrder.BIG_ENDIAN, 6);
+        // Keep the entry count but drop the next-IFD pointer and the last byte of the only entry
+        byte[] truncated = new byte[whole.length - 5];
+        System.arraycopy(whole, 0, truncated, 0, truncated.length);
+        assertEquals(0, ImageResizer.exifOrientation(truncated));
+    }
+
+    @Test
+    void readsOrientationFromJpegMarkers() throws IOException {
+        byte[] segment = app1(ByteOrder.BIG_ENDIAN, 3);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        jpeg.write(new byte[] {(byte) 0xFF, (byte) 0xD8});
+        // An APP0 ahead of the EXIF segment is skipped
+        jpeg.write(new byte[] {(byte) 0xFF, (byte) 0xE0, 0, 4, 1, 2});
+        jpeg.write(new byte[] {(byte) 0xFF, (byte) 0xE1, (byte) ((segment.length + 2) >> 8), (byte) (segment.length + 2)});
+        jpeg.write(segment);
+        jpeg.write(new byte[] {(byte) 0xFF, (byte) 0xDA});
+        assertEquals(3, orientationOf(jpeg.toByteArray()));
+    }
+
+    @Test
+    void truncatedApp1SegmentReadsAsUpright() throws IOException {
+        byte[] segment = app1(ByteOrder.BIG_ENDIAN, 6);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        jpeg.write(new byte[] {(byte) 0xFF, (byte) 0xD8});
+        jpeg.write(new byte[] {(byte) 0xFF, (byte) 0xE1, 0x10, 0});
+        jpeg.write(segment, 0, 10);
+        assertEquals(1, orientationOf(jpeg.toByteArray()));
+    }
+
+    @Test
+    void nonJpegOrGarbageMarkersReadAsUpright() throws IOException {
+        assertEquals(1, orientationOf(new byte[] {'G', 'I', 'F', '8'}));
+        assertEquals(1, orientationOf(new byte[] {(byte) 0xFF, (byte) 0xD8, 0x12, 0x34}));
+        assertEquals(1, orientationOf(new byte[] {(byte) 0xFF}));
+    }
+
+    @Test
+    void streamIsRewoundAfterReadingTheOrientation() throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(new byte[] {(byte) 0xFF, (byte) 0xD8, 0, 0}))) {
+            ImageResizer.exifOrientation(input);
+            assertEquals(0, input.getStreamPosition());
+        }
+    }
+
+    /** Pixels are all different, so any misplaced one shows up. */
+    private static BufferedImage numbered() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, (y * WIDTH + x + 1) * 0x202020);
+            }
+        }
+        return image;
+    }
+
+    /** "Exif\0\0" + a TIFF header whose IFD0 holds one orientation entry. */
+    private static byte[] app1(ByteOrder order, int orientation) {
+        ByteBuffer buffer = ByteBuffer.allocate(6 + 8 + 2 + 12 + 4).order(order);
+        buffer.put("Exif\0\0".getBytes());
+        buffer.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        buffer.put(order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        buffer.putShort((short) 42);
+        buffer.putInt(8);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) 0x0112);
+        buffer.putShort((short) 3);
+        buffer.putInt(1);
+        buffer.putShort((short) orientation);
+        buffer.putShort((short) 0);
+        buffer.putInt(0);
+        return buffer.array();
+    }
+
+    private static int orientationOf(byte[] bytes) throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes))) {
+            return ImageResizer.exifOrientation(input);
+        }
+    }
+}